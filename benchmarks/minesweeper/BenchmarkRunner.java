@@ -0,0 +1,25 @@
+package minesweeper;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class runs the benchmarks of the game with the
+ * allocation profiler enabled, so every result also reports the bytes
+ * allocated per operation. The arguments are the usual JMH command line
+ * options, e.g. a regular expression selecting the benchmarks to run.
+ */
+public class BenchmarkRunner {
+    /**
+     * The main function runs the benchmarks selected by the arguments.
+     * 
+     * @param args JMH command line options
+     * @throws Exception if the options are invalid or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
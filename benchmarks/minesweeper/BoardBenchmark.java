@@ -0,0 +1,100 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BoardBenchmark class measures creating a board, placing its mines,
+ * counting adjacent mines and the 3BV, and checking for a win, for several
+ * board sizes and mine densities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({ "9x9", "16x30", "256x256", "2048x2048" })
+    public String size;// rows x columns
+
+    @Param({ "0.05", "0.2", "0.5" })
+    public double density;// fraction of the cells with a mine
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+    private Board board;
+
+    /**
+     * The method creates the board used by the benchmarks.
+     */
+    @Setup
+    public void setUp() {
+        rows = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        cols = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        mines = (int) (rows * cols * density);
+        board = new Board(mines, rows, cols, 42);
+    }
+
+    /**
+     * The method measures allocating a board and placing its mines.
+     */
+    @Benchmark
+    public Board construct() {
+        return new Board(mines, rows, cols, seed++);
+    }
+
+    /**
+     * The method measures placing the mines of an existing board again.
+     */
+    @Benchmark
+    public Board setMines() {
+        board.setMines(mines, seed++, -1, -1);
+        return board;
+    }
+
+    /**
+     * The method measures placing the mines again and counting the 3BV of the
+     * new placement; compare with setMines for the cost of the count.
+     */
+    @Benchmark
+    public int setMinesAnd3BV() {
+        board.setMines(mines, seed++, -1, -1);
+        return board.get3BV();
+    }
+
+    /**
+     * The method measures reading the adjacent-mine count of every cell.
+     */
+    @Benchmark
+    public int countAdjacentMines() {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                sum += board.countAdjacentMines(i, j);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The method measures the win check done after every move.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isFinished() {
+        return board.isCleared();
+    }
+}
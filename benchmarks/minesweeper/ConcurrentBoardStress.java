@@ -0,0 +1,134 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The ConcurrentBoardStress class hammers one `ConcurrentBoard` from 1 to N
+ * threads that reveal random cells and toggle random flags at the same time,
+ * prints the reveal attempts per second for every thread count, and checks
+ * after every run that the board and the change sets are consistent:
+ * 
+ * - every revealed cell is in exactly one change set, and nothing else is;
+ * - no cell is both revealed and flagged;
+ * - every revealed cell without adjacent mines has all its unflagged
+ * neighbours revealed;
+ * - the counters match the cells.
+ * 
+ * Run with `java -cp target/benchmarks.jar minesweeper.ConcurrentBoardStress
+ * [maxThreads] [size] [density] [moves]`.
+ */
+public class ConcurrentBoardStress {
+    /**
+     * The main function runs the stress test for every thread count.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 2048;
+        double density = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+        int moves = args.length > 3 ? Integer.parseInt(args[3]) : 4_000_000;
+        Board board = new Board((int) (size * size * density), size, size, 42);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (int round = 0; round < 3; round++) {
+                run(board, threads, moves, round == 2);
+            }
+        }
+    }
+
+    /**
+     * The method plays the moves on a new concurrent board split over the
+     * threads, then checks the result.
+     */
+    private static void run(Board board, int threads, int moves, boolean print) throws InterruptedException {
+        ConcurrentBoard shared = new ConcurrentBoard(board);
+        ChangeSet[] changes = new ChangeSet[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            ChangeSet mine = new ChangeSet();
+            changes[t] = mine;
+            SplittableRandom random = new SplittableRandom(t);
+            int count = moves / threads;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int rows = board.getRows();
+                int cols = board.getCols();
+                for (int k = 0; k < count; k++) {
+                    int row = random.nextInt(rows);
+                    int col = random.nextInt(cols);
+                    if (board.hasMine(row, col)) {
+                        // flag mines rather than lose, so the fills keep going
+                        shared.toggleFlag(row, col);
+                    } else {
+                        shared.reveal(row, col, mine);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        check(shared, changes);
+        if (print) {
+            System.out.printf("%2d threads: %.2f M moves/s, %d cells revealed%n", threads, moves / seconds / 1e6,
+                    shared.getRevealedCells());
+        }
+    }
+
+    /**
+     * The method checks the invariants of a board after all threads are done.
+     */
+    private static void check(ConcurrentBoard shared, ChangeSet[] changes) {
+        Board board = shared.getBoard();
+        int rows = board.getRows();
+        int cols = board.getCols();
+        boolean[] seen = new boolean[rows * cols];
+        for (ChangeSet set : changes) {
+            for (int k = 0; k < set.size(); k++) {
+                int cell = set.get(k);
+                if (seen[cell]) {
+                    throw new IllegalStateException("Cell " + cell + " is in two change sets");
+                }
+                seen[cell] = true;
+            }
+        }
+        long revealed = 0;
+        long flags = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                boolean r = shared.isRevealed(i, j);
+                if (r != seen[i * cols + j]) {
+                    throw new IllegalStateException("Cell " + i + "," + j + " revealed without being in a change set");
+                }
+                if (r && shared.isFlagged(i, j)) {
+                    throw new IllegalStateException("Cell " + i + "," + j + " is revealed and flagged");
+                }
+                if (r && !board.hasMine(i, j)) {
+                    revealed++;
+                }
+                if (shared.isFlagged(i, j)) {
+                    flags++;
+                }
+                if (r && !board.hasMine(i, j) && board.countAdjacentMines(i, j) == 0) {
+                    for (int a = Math.max(0, i - 1); a <= Math.min(i + 1, rows - 1); a++) {
+                        for (int b = Math.max(0, j - 1); b <= Math.min(j + 1, cols - 1); b++) {
+                            if (!shared.isRevealed(a, b) && !shared.isFlagged(a, b)) {
+                                throw new IllegalStateException("Flood fill stopped at " + a + "," + b);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (revealed != shared.getRevealedCells() || flags != shared.getFlagCount()) {
+            throw new IllegalStateException("Counters do not match the cells");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RestartBenchmark class measures starting a new game up to its first
+ * click, once on the engine of the last game, as the New game button does,
+ * and once on a new engine and board. Run with the allocation profiler of
+ * BenchmarkRunner to see the bytes a restart saves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestartBenchmark {
+    @Param({ "9x9", "16x30", "256x256", "2048x2048" })
+    public String size;// rows x columns
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+    private GameEngine engine;
+
+    /**
+     * The method creates the engine restarted by the benchmarks.
+     */
+    @Setup
+    public void setUp() {
+        rows = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        cols = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        mines = rows * cols / 5;
+        engine = new GameEngine(mines, rows, cols, 42, true);
+    }
+
+    /**
+     * The method measures restarting the engine in place and playing the first
+     * click, which places the mines.
+     */
+    @Benchmark
+    public ChangeSet restart() {
+        engine.restart(seed++);
+        return engine.reveal(rows / 2, cols / 2);
+    }
+
+    /**
+     * The method measures creating a new engine and board and playing the
+     * first click.
+     */
+    @Benchmark
+    public ChangeSet fresh() {
+        return new GameEngine(mines, rows, cols, seed++, true).reveal(rows / 2, cols / 2);
+    }
+}
@@ -0,0 +1,108 @@
+package minesweeper;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RevealBenchmark class measures the flood fill of a click on an open
+ * board, and showing every mine of a lost game. The board is reset inside the
+ * flood fill benchmark so every operation reveals the same cells; `reset`
+ * measures that part alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RevealBenchmark {
+    @Param({ "16x30", "256x256", "2048x2048" })
+    public String size;// rows x columns
+
+    @Param({ "0", "0.01", "0.05" })
+    public double density;// fraction of the cells with a mine
+
+    private Board board;
+    private ChangeSet changes;
+    private BoardView view;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * The method creates a board whose first cell is free of mines, and a view
+     * of it painting into an image the size of the visible window.
+     */
+    @Setup
+    public void setUp() {
+        int rows = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        int cols = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        board = new Board(0, rows, cols, 42);
+        board.setMines((int) (rows * cols * density), 42, 0, 0);
+        changes = new ChangeSet();
+
+        view = new BoardView(board, 24, new BoardView.CellListener() {
+            @Override
+            public void cellClicked(int row, int col) {
+            }
+
+            @Override
+            public void cellRightClicked(int row, int col) {
+            }
+        });
+        view.setSize(view.getPreferredScrollableViewportSize());
+        image = new BufferedImage(view.getWidth(), view.getHeight(), BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        view.showMines(changes);
+    }
+
+    /**
+     * The method releases the graphics context of the image.
+     */
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    /**
+     * The method measures hiding every cell again.
+     */
+    @Benchmark
+    public Board reset() {
+        board.reset();
+        return board;
+    }
+
+    /**
+     * The method measures the flood fill of a click on the corner of the board.
+     */
+    @Benchmark
+    public int resetAndReveal() {
+        board.reset();
+        changes.clear();
+        board.reveal(0, 0, changes);
+        return changes.size();
+    }
+
+    /**
+     * The method measures painting the visible part of a lost board, which is
+     * what revealing all cells at the end of a game costs.
+     */
+    @Benchmark
+    public BufferedImage paintLostBoard() {
+        view.paint(graphics);
+        return image;
+    }
+}
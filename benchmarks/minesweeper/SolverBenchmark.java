@@ -0,0 +1,56 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SolverBenchmark class measures solving the position left by the first
+ * click of a first-click-safe game, for the three standard difficulties.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({ "9x9/10", "16x16/40", "16x30/99" })
+    public String config;// rows x columns / mines
+
+    private Solver solver;
+    private Board board;
+
+    /**
+     * The method plays the first click of a game from a fixed seed.
+     */
+    @Setup
+    public void setUp() {
+        int x = config.indexOf('x');
+        int slash = config.indexOf('/');
+        int rows = Integer.parseInt(config.substring(0, x));
+        int cols = Integer.parseInt(config.substring(x + 1, slash));
+        int mines = Integer.parseInt(config.substring(slash + 1));
+        GameEngine engine = new GameEngine(mines, rows, cols, 42, true);
+        engine.reveal(rows / 2, cols / 2);
+        board = engine.getBoard();
+        solver = new Solver();
+    }
+
+    /**
+     * The method measures one solve of the position.
+     */
+    @Benchmark
+    public Solver.Result solve() {
+        return solver.solve(board);
+    }
+}
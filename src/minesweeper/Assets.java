@@ -0,0 +1,188 @@
+package minesweeper;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * The Assets class is the shared cache of the images used by the game. Every
+ * image file is decoded once, and the tiles of the board are rendered once per
+ * cell size into a single atlas image. Images that are only needed later, like
+ * the animations shown at the end of a game, can be loaded on a background
+ * thread so they are ready when the game ends.
+ */
+public final class Assets {
+    // positions of the tiles in the atlas, 1 to 8 are the numbered tiles
+    public static final int TILE_EMPTY = 0;
+    public static final int TILE_HIDDEN = 9;
+    public static final int TILE_FLAG = 10;
+    public static final int TILE_MINE = 11;
+    public static final int TILE_RED_MINE = 12;
+    private static final int TILE_COUNT = 13;
+
+    private static final Map<String, CompletableFuture<ImageIcon>> icons = new ConcurrentHashMap<>();
+    private static final Map<Integer, BufferedImage> atlases = new ConcurrentHashMap<>();
+    private static ExecutorService loader;// background thread for preloading
+
+    private Assets() {
+    }
+
+    /**
+     * The method returns the icon of an image file, decoding the file the first
+     * time it is asked for. If the file is still being loaded in the background
+     * the method waits for it.
+     * 
+     * @param file the name of the image file
+     * @return the icon of the image
+     */
+    public static ImageIcon getIcon(String file) {
+        return icons.computeIfAbsent(file, f -> CompletableFuture.completedFuture(load(f))).join();
+    }
+
+    /**
+     * The method returns the decoded image of an image file.
+     * 
+     * @param file the name of the image file
+     * @return the image
+     */
+    public static Image getImage(String file) {
+        return getIcon(file).getImage();
+    }
+
+    /**
+     * The method starts loading image files on a background thread, so a later
+     * getIcon() finds them decoded.
+     * 
+     * @param files the names of the image files to load
+     */
+    public static synchronized void preload(String... files) {
+        if (loader == null) {
+            loader = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "asset-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        for (String file : files) {
+            icons.computeIfAbsent(file, f -> CompletableFuture.supplyAsync(() -> load(f), loader));
+        }
+    }
+
+    /**
+     * The method decodes an image file. PNG files are decoded with ImageIO;
+     * GIF files go through the toolkit so that animations keep playing.
+     */
+    private static ImageIcon load(String file) {
+        if (!file.endsWith(".gif")) {
+            try {
+                BufferedImage image = ImageIO.read(new File(file));
+                if (image != null) {
+                    return new ImageIcon(image);
+                }
+            } catch (IOException e) {
+                // fall back to the toolkit, which shows an empty icon for a missing file
+            }
+        }
+        return new ImageIcon(file);
+    }
+
+    /**
+     * The method returns the atlas of board tiles for a cell size. The atlas is
+     * one image holding all tiles side by side; the tile with index `t` starts
+     * at x = `t * size`.
+     * 
+     * @param size the width and height of a cell in pixels
+     * @return the atlas image
+     */
+    public static BufferedImage getTileAtlas(int size) {
+        return atlases.computeIfAbsent(size, Assets::createTileAtlas);
+    }
+
+    /**
+     * The method renders all tiles for the given cell size into a new atlas.
+     */
+    private static BufferedImage createTileAtlas(int size) {
+        BufferedImage atlas = new BufferedImage(TILE_COUNT * size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setFont(new Font("Arial", Font.BOLD, size * 5 / 12));
+        FontMetrics metrics = g.getFontMetrics();
+        for (int n = 0; n <= 8; n++) {
+            drawEmpty(g, n * size, size);
+            if (n > 0) {
+                String text = Integer.toString(n);
+                g.setColor(getTextColor(n));
+                g.drawString(text, n * size + (size - metrics.stringWidth(text)) / 2,
+                        (size - metrics.getHeight()) / 2 + metrics.getAscent());
+            }
+        }
+        int iconSize = size * 3 / 4;
+        int offset = (size - iconSize) / 2;
+        g.drawImage(getImage("tile.png"), TILE_HIDDEN * size, 0, size, size, null);
+        g.drawImage(getImage("tile.png"), TILE_FLAG * size, 0, size, size, null);
+        g.drawImage(getImage("flag.png"), TILE_FLAG * size + offset, offset, iconSize, iconSize, null);
+        drawEmpty(g, TILE_MINE * size, size);
+        g.drawImage(getImage("mine.png"), TILE_MINE * size + offset, offset, iconSize, iconSize, null);
+        drawEmpty(g, TILE_RED_MINE * size, size);
+        g.drawImage(getImage("redmine.png"), TILE_RED_MINE * size + offset, offset, iconSize, iconSize, null);
+        g.dispose();
+        return atlas;
+    }
+
+    /**
+     * The method draws the background of a revealed cell.
+     */
+    private static void drawEmpty(Graphics2D g, int x, int size) {
+        g.setColor(new Color(238, 238, 238));
+        g.fillRect(x, 0, size, size);
+        g.setColor(Color.GRAY);
+        g.drawRect(x, 0, size - 1, size - 1);
+    }
+
+    /**
+     * The method getTextColor returns a Color based on the input number, with
+     * default color as
+     * black.
+     * 
+     * @param number If `number` matches one of the cases (1 to 8), a specific color
+     *               is returned
+     * @return returns a `Color` object based on the input `number`
+     */
+    private static Color getTextColor(int number) {
+        switch (number) {
+            case 1:
+                return Color.BLUE;
+            case 2:
+                return (new Color(0, 153, 0));
+            case 3:
+                return Color.RED;
+            case 4:
+                return Color.magenta;
+            case 5:
+                return Color.BLACK;
+            case 6:
+                return Color.DARK_GRAY;
+            case 7:
+                return Color.ORANGE;
+            case 8:
+                return Color.CYAN;
+            default:
+                return Color.BLACK;
+
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Bbbv class computes the 3BV of a mine placement, the smallest number of
+ * clicks that clears the board: one click per opening, a connected region of
+ * cells without adjacent mines, plus one per numbered cell that no opening
+ * reveals. It works on the bit planes of a `Board`.
+ * 
+ * The cells without adjacent mines form a zero plane, derived word by word
+ * from the mine and count planes. The numbered cells next to an opening are
+ * the zero plane dilated by one cell, so the isolated numbers are counted 64
+ * at a time with a popcount. The openings are counted with a union-find over
+ * the runs of zero cells of every row, kept in int arrays: two runs of
+ * neighbouring rows are joined if they touch, diagonals included, and the
+ * number of openings is the number of runs minus the successful unions.
+ * 
+ * Large boards are cut into stripes of rows that are counted on a fork-join
+ * pool. Every stripe only joins runs inside it, so the stripes share no
+ * state, and the runs on both sides of the borders are joined afterwards.
+ */
+final class Bbbv {
+    private static final int STRIPE_CELLS = 1 << 16;// cells per stripe at least
+
+    private final long[] mines;
+    private final long[] counts;
+    private final int rows;
+    private final int wordsPerRow;
+    private final long lastMask;// valid bits of the last word of a row
+    private final int stripeRows;
+    private int[] offset;// offset[r]: index of the first run of row r
+    private int[] first;// first column of every run
+    private int[] last;// last column of every run
+    private int[] parent;// union-find over the runs
+    private int[] isolated;// isolated numbers per stripe
+    private int[] unions;// successful unions per stripe
+
+    /**
+     * The Bbbv constructor prepares the count for the planes of a board, laid
+     * out as in `Board`.
+     */
+    Bbbv(long[] mines, long[] counts, int rows, int cols, int wordsPerRow) {
+        this.mines = mines;
+        this.counts = counts;
+        this.rows = rows;
+        this.wordsPerRow = wordsPerRow;
+        this.lastMask = cols % 64 == 0 ? -1L : (1L << cols) - 1;
+        this.stripeRows = Math.max(1, STRIPE_CELLS / Math.max(1, cols));
+    }
+
+    /**
+     * The method returns the 3BV of the board, counting the stripes on the
+     * given pool.
+     * 
+     * @param pool the pool the stripes are counted on
+     * @return the 3BV
+     */
+    int compute(ForkJoinPool pool) {
+        int stripes = (rows + stripeRows - 1) / stripeRows;
+        offset = new int[rows + 1];
+        isolated = new int[stripes];
+        unions = new int[stripes];
+        forEachStripe(pool, stripes, this::countStripe);
+        for (int r = 0; r < rows; r++) {
+            offset[r + 1] += offset[r];
+        }
+        int runs = offset[rows];
+        first = new int[runs];
+        last = new int[runs];
+        parent = new int[runs];
+        forEachStripe(pool, stripes, this::joinStripe);
+
+        // the runs on both sides of a border belong to different stripes
+        int total = runs;
+        for (int s = 0; s < stripes; s++) {
+            total += isolated[s] - unions[s];
+            int r = s * stripeRows;
+            if (r > 0) {
+                total -= join(r - 1, r);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The method runs a pass over every stripe, in parallel if there are
+     * several.
+     */
+    private void forEachStripe(ForkJoinPool pool, int stripes, StripePass pass) {
+        if (stripes == 1) {
+            pass.run(0);
+            return;
+        }
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int s = 0; s < stripes; s++) {
+            int stripe = s;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    pass.run(stripe);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * The StripePass interface is one pass over the rows of a stripe.
+     */
+    private interface StripePass {
+        void run(int stripe);
+    }
+
+    /**
+     * The method counts the runs of every row of a stripe into `offset`, and
+     * the numbered cells of the stripe that no opening touches.
+     */
+    private void countStripe(int stripe) {
+        int end = Math.min(rows, (stripe + 1) * stripeRows);
+        int count = 0;
+        for (int r = stripe * stripeRows; r < end; r++) {
+            int runs = 0;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long z = zero(r, w);
+                runs += Long.bitCount(z & ~((z << 1) | (w > 0 ? zero(r, w - 1) >>> 63 : 0)));
+                // the cells next to or on a zero cell
+                long near = 0;
+                for (int nr = Math.max(0, r - 1); nr <= Math.min(r + 1, rows - 1); nr++) {
+                    long m = zero(nr, w);
+                    long prev = w > 0 ? zero(nr, w - 1) : 0;
+                    long next = w < wordsPerRow - 1 ? zero(nr, w + 1) : 0;
+                    near |= m | (m << 1) | (prev >>> 63) | (m >>> 1) | (next << 63);
+                }
+                long numbered = ~z & ~mines[r * wordsPerRow + w] & (w == wordsPerRow - 1 ? lastMask : -1L);
+                count += Long.bitCount(numbered & ~near);
+            }
+            offset[r + 1] = runs;
+        }
+        isolated[stripe] = count;
+    }
+
+    /**
+     * The method lists the runs of every row of a stripe and joins the runs
+     * of neighbouring rows inside the stripe.
+     */
+    private void joinStripe(int stripe) {
+        int start = stripe * stripeRows;
+        int end = Math.min(rows, start + stripeRows);
+        int count = 0;
+        for (int r = start; r < end; r++) {
+            int run = offset[r];
+            int open = run;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long z = zero(r, w);
+                long prev = w > 0 ? zero(r, w - 1) : 0;
+                long next = w < wordsPerRow - 1 ? zero(r, w + 1) : 0;
+                long starts = z & ~((z << 1) | (prev >>> 63));
+                long ends = z & ~((z >>> 1) | (next << 63));
+                for (; starts != 0; starts &= starts - 1) {
+                    parent[run] = run;
+                    first[run++] = (w << 6) + Long.numberOfTrailingZeros(starts);
+                }
+                for (; ends != 0; ends &= ends - 1) {
+                    last[open++] = (w << 6) + Long.numberOfTrailingZeros(ends);
+                }
+            }
+            if (r > start) {
+                count += join(r - 1, r);
+            }
+        }
+        unions[stripe] = count;
+    }
+
+    /**
+     * The method joins the runs of two neighbouring rows that touch, walking
+     * both rows from left to right.
+     * 
+     * @return the number of successful unions
+     */
+    private int join(int above, int below) {
+        int count = 0;
+        int i = offset[above];
+        int j = offset[below];
+        while (i < offset[above + 1] && j < offset[below + 1]) {
+            if (first[i] <= last[j] + 1 && first[j] <= last[i] + 1 && union(i, j)) {
+                count++;
+            }
+            if (last[i] < last[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private boolean union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) {
+            return false;
+        }
+        if (a < b) {
+            parent[b] = a;
+        } else {
+            parent[a] = b;
+        }
+        return true;
+    }
+
+    private int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * The method returns a word of the zero plane: the cells without a mine
+     * and without adjacent mines.
+     */
+    private long zero(int r, int w) {
+        int i = r * wordsPerRow + w;
+        int c = i << 2;
+        long z = ~(mines[i] | counts[c] | counts[c + 1] | counts[c + 2] | counts[c + 3]);
+        return w == wordsPerRow - 1 ? z & lastMask : z;
+    }
+}
@@ -0,0 +1,610 @@
+package minesweeper;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The `Board` class represents a game board with spaces that can contain mines
+ * and tracks adjacent
+ * mines for each space.
+ * 
+ * The state of the cells is kept in bit planes instead of one object per cell.
+ * Every row is padded to a whole number of 64 bit words, so the bit of the cell
+ * (row, col) lives in word `row * wordsPerRow + (col >>> 6)` at position
+ * `col & 63`. A 4000x4000 board takes about 6 MB this way, where an array of
+ * one object per cell of the same size needs more than 450 MB.
+ * 
+ * The number of adjacent mines is computed once for the whole board after the
+ * mines are placed and is stored as four more bit planes, one per bit of the
+ * count, so a count costs half a byte per cell.
+ * 
+ * The board keeps live counters of revealed safe cells and placed flags,
+ * updated whenever a cell changes, so the state of the game can be read in
+ * constant time.
+ * 
+ * Mines are placed from a seed, so the same seed, size, mine count and first
+ * click always give the same board.
+ */
+public class Board {
+    private long[] mines;// one bit per cell, set if the cell has a mine
+    private long[] revealed;// one bit per cell, set if the cell is revealed
+    private long[] flagged;// one bit per cell, set if the cell is flagged
+    private long[] counts;// four bits of the adjacent mine count per cell
+    private int wordsPerRow;// number of 64 bit words used by one row
+    private int numOfMines;
+    private int row;
+    private int col;
+    private long seed;// seed the mines were placed from
+    private int revealedCells;// number of revealed cells without a mine
+    private int flagCount;// number of flagged cells
+    private int bbbv;// 3BV of the mines, -1 until asked for
+
+    /**
+     * The Board constructor initializes a new game board with the specified number
+     * of mines, rows and columns
+     */
+    public Board(int numOfMines, int row, int col) {
+        this(numOfMines, row, col, new Random().nextLong());
+    }
+
+    /**
+     * The Board constructor initializes a new game board with the specified number
+     * of mines, rows and columns, placing the mines from the given seed.
+     * 
+     * @param seed the seed of the random mine placement
+     */
+    public Board(int numOfMines, int row, int col, long seed) {
+        this.row = row;
+        this.col = col;
+        this.numOfMines = numOfMines;
+        this.seed = seed;
+
+        createEmptyBoard();
+
+        setMines(numOfMines);
+    }
+
+    /**
+     * The Board constructor restores a saved board from its mine, revealed and
+     * flagged planes, read one after the other from a buffer, as written by
+     * writePlanes(). The counts and counters are computed from the planes.
+     * 
+     * @param planes the buffer positioned at the start of the mine plane
+     */
+    Board(int numOfMines, int row, int col, long seed, LongBuffer planes) {
+        this.row = row;
+        this.col = col;
+        this.numOfMines = numOfMines;
+        this.seed = seed;
+
+        createEmptyBoard();
+
+        planes.get(mines);
+        planes.get(revealed);
+        planes.get(flagged);
+        computeAdjacentCounts();
+        for (int w = 0; w < mines.length; w++) {
+            revealedCells += Long.bitCount(revealed[w] & ~mines[w]);
+            flagCount += Long.bitCount(flagged[w]);
+        }
+    }
+
+    /**
+     * The method creates an empty board by allocating the mine, revealed and
+     * flagged bit planes.
+     */
+    public void createEmptyBoard() {
+        wordsPerRow = (col + 63) >>> 6;
+        int words = row * wordsPerRow;
+        mines = new long[words];
+        revealed = new long[words];
+        flagged = new long[words];
+        counts = new long[words * 4];
+    }
+
+    /**
+     * The method hides every cell and removes every flag, keeping the mines, so
+     * the same board can be played again without allocating anything.
+     */
+    public void reset() {
+        Arrays.fill(revealed, 0);
+        Arrays.fill(flagged, 0);
+        revealedCells = 0;
+        flagCount = 0;
+    }
+
+    /**
+     * The method sets a specified number of mines randomly on a board, using the
+     * seed of the board.
+     * 
+     * @param minesToPlace specifies the number of mines that need to be
+     *                     randomly placed on the game board.
+     */
+    public void setMines(int minesToPlace) {
+        setMines(minesToPlace, seed, -1, -1);
+    }
+
+    /**
+     * The method replaces the mines of the board with a specified number of
+     * mines placed randomly from a seed, keeping a safe cell and its neighbours
+     * free of mines. If there are too many mines for that, only the safe cell
+     * itself is kept free.
+     * 
+     * The mines are drawn without replacement with Floyd's sampling algorithm,
+     * which needs one random number per mine whatever the density. On boards
+     * that are more than half mines the free cells are drawn instead, so the
+     * work is proportional to the smaller of the two counts.
+     * 
+     * @param minesToPlace specifies the number of mines that need to be
+     *                     randomly placed on the game board.
+     * @param seed         the seed of the random mine placement
+     * @param safeRow      the row of the cell that must not have a mine, or -1
+     *                     for none
+     * @param safeCol      the column of the cell that must not have a mine
+     */
+    public void setMines(int minesToPlace, long seed, int safeRow, int safeCol) {
+        long start = Metrics.start();
+        int[] excluded = excludedCells(minesToPlace, safeRow, safeCol);
+        int free = row * col - excluded.length;
+        if (minesToPlace < 0 || minesToPlace > free) {
+            throw new IllegalArgumentException("Cannot place " + minesToPlace + " mines on " + free + " cells");
+        }
+        this.numOfMines = minesToPlace;
+        this.seed = seed;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Arrays.fill(mines, 0);
+        if (minesToPlace <= free / 2) {
+            sample(random, minesToPlace, free, excluded, true);
+        } else {
+            // fill every free cell, then draw the cells to clear
+            long lastWord = col % 64 == 0 ? -1L : (1L << col) - 1;
+            for (int r = 0; r < row; r++) {
+                Arrays.fill(mines, r * wordsPerRow, (r + 1) * wordsPerRow - 1, -1L);
+                mines[(r + 1) * wordsPerRow - 1] = lastWord;
+            }
+            for (int cell : excluded) {
+                mines[wordIndex(cell / col, cell % col)] &= ~(1L << (cell % col));
+            }
+            sample(random, free - minesToPlace, free, excluded, false);
+        }
+        computeAdjacentCounts();
+
+        // cells revealed before the mines moved may have changed from safe to mine
+        revealedCells = 0;
+        for (int w = 0; w < mines.length; w++) {
+            revealedCells += Long.bitCount(revealed[w] & ~mines[w]);
+        }
+        Metrics.record(Metrics.GENERATE, start, minesToPlace);
+    }
+
+    /**
+     * The method returns the sorted cells that must stay free of mines: the
+     * safe cell and its neighbours if the mines still fit, otherwise just the
+     * safe cell.
+     */
+    private int[] excludedCells(int minesToPlace, int safeRow, int safeCol) {
+        if (safeRow < 0) {
+            return new int[0];
+        }
+        int[] cells = new int[9];
+        int n = 0;
+        for (int i = Math.max(0, safeRow - 1); i <= Math.min(safeRow + 1, row - 1); i++) {
+            for (int j = Math.max(0, safeCol - 1); j <= Math.min(safeCol + 1, col - 1); j++) {
+                cells[n++] = i * col + j;
+            }
+        }
+        if (minesToPlace > row * col - n) {
+            return new int[] { safeRow * col + safeCol };
+        }
+        return Arrays.copyOf(cells, n);
+    }
+
+    /**
+     * The method picks `count` distinct cells out of the `free` cells that are
+     * not excluded with Floyd's algorithm and sets (or clears) their mine bit.
+     * The mine plane itself is the set of picked cells, so no other memory is
+     * needed.
+     */
+    private void sample(SplittableRandom random, int count, int free, int[] excluded, boolean place) {
+        for (int j = free - count; j < free; j++) {
+            int cell = freeCell(random.nextInt(j + 1), excluded);
+            if (hasMine(cell / col, cell % col) == place) {
+                // already picked, so pick j, which cannot have been picked yet
+                cell = freeCell(j, excluded);
+            }
+            int word = wordIndex(cell / col, cell % col);
+            mines[word] ^= 1L << (cell % col);
+        }
+    }
+
+    /**
+     * The method maps the n-th cell that is not excluded to its index
+     * `row * cols + col`.
+     */
+    private static int freeCell(int n, int[] excluded) {
+        for (int cell : excluded) {
+            if (n >= cell) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * The method computes the number of adjacent mines of every cell at once.
+     * For each word of a row the eight neighbour planes are built by shifting
+     * the mine words of the row above, the row itself and the row below by one
+     * column, carrying the edge bit over from the next word. The eight planes
+     * are then summed 64 cells at a time with a bit sliced adder into the four
+     * count planes.
+     */
+    private void computeAdjacentCounts() {
+        for (int r = 0; r < row; r++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int nr = Math.max(0, r - 1); nr <= Math.min(r + 1, row - 1); nr++) {
+                    int base = nr * wordsPerRow;
+                    long m = mines[base + w];
+                    long prev = w > 0 ? mines[base + w - 1] : 0;
+                    long next = w < wordsPerRow - 1 ? mines[base + w + 1] : 0;
+                    // the mine to the west and to the east of every cell in the word
+                    long west = (m << 1) | (prev >>> 63);
+                    long east = (m >>> 1) | (next << 63);
+                    for (int k = nr == r ? 1 : 0; k < 3; k++) {
+                        long x = k == 0 ? m : k == 1 ? west : east;
+                        long carry = s0 & x;
+                        s0 ^= x;
+                        long carry2 = s1 & carry;
+                        s1 ^= carry;
+                        s3 |= s2 & carry2;
+                        s2 ^= carry2;
+                    }
+                }
+                int i = (r * wordsPerRow + w) << 2;
+                counts[i] = s0;
+                counts[i + 1] = s1;
+                counts[i + 2] = s2;
+                counts[i + 3] = s3;
+            }
+        }
+        // the mines changed, so the 3BV is counted again when asked for
+        bbbv = -1;
+    }
+
+    /**
+     * The method returns the number of adjacent mines around a given cell on a game
+     * board from the counts computed when the mines were placed.
+     * 
+     * @param x represents the x-coordinate of a cell on the game board where you
+     *          want to count the number of adjacent mines.
+     * @param y represents the y-coordinate of a cell on the game board
+     * @return The count of adjacent mines around the cell at position is being
+     *         returned.
+     */
+    public int countAdjacentMines(int x, int y) {
+        int i = wordIndex(x, y) << 2;
+        return (int) ((counts[i] >>> y) & 1)
+                | (int) ((counts[i + 1] >>> y) & 1) << 1
+                | (int) ((counts[i + 2] >>> y) & 1) << 2
+                | (int) ((counts[i + 3] >>> y) & 1) << 3;
+    }
+
+    /**
+     * The method reveals a cell and, if it has no adjacent mines, the whole
+     * region of cells connected to it through cells without adjacent mines.
+     * The fill is iterative: every newly revealed cell is appended to the change
+     * set, and the change set itself is walked as the queue of cells whose
+     * neighbours still have to be visited. A cell is marked revealed when it is
+     * appended, so it is visited only once and no memory beyond the change set
+     * is needed. Flagged cells are left alone.
+     * 
+     * @param row     represents the row index of the cell to reveal
+     * @param col     represents the column index of the cell to reveal
+     * @param changes the change set the revealed cells are appended to
+     */
+    public void reveal(int row, int col, ChangeSet changes) {
+        long start = Metrics.start();
+        int first = changes.size();
+        fill(row, col, changes);
+        Metrics.record(Metrics.REVEAL, start, changes.size() - first);
+    }
+
+    /**
+     * The method does the flood fill of reveal().
+     */
+    private void fill(int row, int col, ChangeSet changes) {
+        if (isRevealed(row, col) || isFlagged(row, col)) {
+            return;
+        }
+        int next = changes.size();
+        setRevealed(row, col, true);
+        changes.add(row * this.col + col);
+        if (hasMine(row, col)) {
+            return;
+        }
+        while (next < changes.size()) {
+            int cell = changes.get(next++);
+            int r = cell / this.col;
+            int c = cell - r * this.col;
+            if (countAdjacentMines(r, c) != 0) {
+                continue;
+            }
+            for (int i = Math.max(0, r - 1); i <= Math.min(r + 1, this.row - 1); i++) {
+                for (int j = Math.max(0, c - 1); j <= Math.min(c + 1, this.col - 1); j++) {
+                    // a cell without adjacent mines has no mines around it
+                    if (!isRevealed(i, j) && !isFlagged(i, j)) {
+                        setRevealed(i, j, true);
+                        changes.add(i * this.col + j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The method reveals a cell like reveal(row, col, changes) and returns the
+     * changed cells in a new change set.
+     * 
+     * @param row represents the row index of the cell to reveal
+     * @param col represents the column index of the cell to reveal
+     * @return the change set holding every cell revealed by this call
+     */
+    public ChangeSet reveal(int row, int col) {
+        ChangeSet changes = new ChangeSet();
+        reveal(row, col, changes);
+        return changes;
+    }
+
+    /**
+     * The method returns the number of mines on the board.
+     * 
+     * @return the number of mines
+     */
+    public int getNumOfMines() {
+        return this.numOfMines;
+    }
+
+    /**
+     * The method returns the seed the mines were placed from.
+     * 
+     * @return the seed of the board
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * The method returns the value of the `row` attribute.
+     * 
+     * @return returning the value of the instance variable `row`.
+     */
+    public int getRows() {
+        return this.row;
+    }
+
+    /**
+     * The method returns the number of columns in the object.
+     * 
+     * @return returning the value of the instance variable `col`.
+     */
+    public int getCols() {
+        return this.col;
+    }
+
+    /**
+     * The method `hasMine` in Java checks if a specific cell on the board has a
+     * mine.
+     * 
+     * @param row represents the row index of the cell on the game board.
+     * @param col represents the column index in a 2D board where you want to check
+     *            for the presence of a mine.
+     * @return returns a boolean value indicating whether there
+     *         is a mine at the specified row and column on the game board.
+     */
+    public boolean hasMine(int row, int col) {
+        return (mines[wordIndex(row, col)] & (1L << col)) != 0;
+    }
+
+    /**
+     * The method checks if a specific cell on the board is revealed.
+     * 
+     * @param row represents the row index of a cell on the game board.
+     * @param col represents the column index in a two-dimensional array or grid.
+     * @return returning a boolean value indicating whether
+     *         the cell at the specified row and column on the board is revealed or
+     *         not.
+     */
+    public boolean isRevealed(int row, int col) {
+        return (revealed[wordIndex(row, col)] & (1L << col)) != 0;
+    }
+
+    /**
+     * The method sets the revealed status of a specific cell on the board
+     * 
+     * @param row      represents the row index of the cell on the game board where
+     *                 you
+     *                 want to set the revealed status
+     * @param col      represents the column index in a two-dimensional array or
+     *                 grid.
+     *                 It specifies the column where you want to set the revealed
+     *                 status for a particular cell in the
+     *                 grid
+     * @param revealed a boolean value that indicates whether a cell in a board
+     *                 should be revealed or not
+     */
+    public void setRevealed(int row, int col, boolean revealed) {
+        int word = wordIndex(row, col);
+        long bit = 1L << col;
+        if (((this.revealed[word] & bit) != 0) == revealed) {
+            return;
+        }
+        this.revealed[word] ^= bit;
+        if ((mines[word] & bit) == 0) {
+            revealedCells += revealed ? 1 : -1;
+        }
+    }
+
+    /**
+     * The method checks if a specific cell on the board is flagged.
+     * 
+     * @param row represents the row index of a cell on the game board.
+     * @param col represents the column index of a cell on the game board.
+     * @return returns true if the cell at the specified row and column is flagged
+     */
+    public boolean isFlagged(int row, int col) {
+        return (flagged[wordIndex(row, col)] & (1L << col)) != 0;
+    }
+
+    /**
+     * The method sets the flagged status of a specific cell on the board
+     * 
+     * @param row     represents the row index of the cell on the game board
+     * @param col     represents the column index of the cell on the game board
+     * @param flagged a boolean value that indicates whether the cell should be
+     *                flagged or not
+     */
+    public void setFlagged(int row, int col, boolean flagged) {
+        int word = wordIndex(row, col);
+        long bit = 1L << col;
+        if (((this.flagged[word] & bit) != 0) == flagged) {
+            return;
+        }
+        this.flagged[word] ^= bit;
+        flagCount += flagged ? 1 : -1;
+    }
+
+    /**
+     * The method returns the 3BV of the mine placement, the smallest number of
+     * clicks that clears the board without flags: one per opening plus one
+     * per numbered cell no opening reveals, see Bbbv. It is counted once per
+     * placement, on the common fork-join pool for large boards, and kept until
+     * the mines change.
+     * 
+     * @return the 3BV of the board
+     */
+    public int get3BV() {
+        if (bbbv < 0) {
+            bbbv = new Bbbv(mines, counts, row, col, wordsPerRow).compute(ForkJoinPool.commonPool());
+        }
+        return bbbv;
+    }
+
+    /**
+     * The method returns the number of revealed cells without a mine.
+     * 
+     * @return the number of revealed safe cells
+     */
+    public int getRevealedCells() {
+        return revealedCells;
+    }
+
+    /**
+     * The method returns the number of flagged cells.
+     * 
+     * @return the number of flags on the board
+     */
+    public int getFlagCount() {
+        return flagCount;
+    }
+
+    /**
+     * The method returns the number of mines not yet marked by a flag, which is
+     * negative if there are more flags than mines.
+     * 
+     * @return the number of mines minus the number of flags
+     */
+    public int getRemainingMines() {
+        return numOfMines - flagCount;
+    }
+
+    /**
+     * The method checks if every cell without a mine has been revealed.
+     * 
+     * @return true if all safe cells are revealed
+     */
+    public boolean isCleared() {
+        return revealedCells == row * col - numOfMines;
+    }
+
+    /**
+     * The method writes the mine, revealed and flagged planes one after the
+     * other to a buffer, in the layout read back by the restoring constructor.
+     * 
+     * @param planes the buffer to write to, with room for planeLength() words
+     *               per plane
+     */
+    void writePlanes(LongBuffer planes) {
+        planes.put(mines);
+        planes.put(revealed);
+        planes.put(flagged);
+    }
+
+    /**
+     * The method copies the revealed and flagged planes, one after the other,
+     * into an array of 2 * planeLength() words.
+     * 
+     * @param state the array to copy into
+     */
+    void saveState(long[] state) {
+        System.arraycopy(revealed, 0, state, 0, revealed.length);
+        System.arraycopy(flagged, 0, state, revealed.length, flagged.length);
+    }
+
+    /**
+     * The method restores the revealed and flagged planes saved by
+     * saveState() and recounts the revealed cells and flags.
+     * 
+     * @param state the array saved from this board
+     */
+    void restoreState(long[] state) {
+        System.arraycopy(state, 0, revealed, 0, revealed.length);
+        System.arraycopy(state, revealed.length, flagged, 0, flagged.length);
+        revealedCells = 0;
+        flagCount = 0;
+        for (int w = 0; w < mines.length; w++) {
+            revealedCells += Long.bitCount(revealed[w] & ~mines[w]);
+            flagCount += Long.bitCount(flagged[w]);
+        }
+    }
+
+    /**
+     * The method counts the bits set in the mine plane, which is the number of
+     * mines unless the plane was restored from a damaged file.
+     * 
+     * @return the number of mines on the mine plane
+     */
+    int countMinePlane() {
+        int count = 0;
+        for (long word : mines) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * The method returns the number of words in each bit plane of the board.
+     * 
+     * @return the number of rows times the number of words per row
+     */
+    int planeLength() {
+        return mines.length;
+    }
+
+    /**
+     * The method returns the index of the word in the bit planes that holds the
+     * given cell. The bit inside that word is `col & 63`, which is what a shift
+     * by `col` selects.
+     * 
+     * @param row represents the row index of the cell
+     * @param col represents the column index of the cell
+     * @return the index of the word that holds the cell
+     */
+    private int wordIndex(int row, int col) {
+        return row * wordsPerRow + (col >>> 6);
+    }
+
+}
@@ -0,0 +1,239 @@
+package minesweeper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BoardPool class keeps a bounded number of pregenerated no-guess boards
+ * ready for every registered board size and mine count. Worker threads, one per
+ * core by default, run the generate-and-verify loop of `NoGuessGenerator` in
+ * the background and refill a pool whenever a board is taken from it, so a new
+ * game only has to pick up a board that is already there; if none is, the
+ * caller waits for the workers, it never generates one itself.
+ * 
+ * Only the seed of each board is pooled; the board itself is rebuilt from the
+ * seed when it is taken, which takes time proportional to the mine count.
+ * A configuration for which the generator finds no board, because it has too
+ * many mines, is dropped, and taking a board of it fails, also for a caller
+ * already waiting.
+ */
+public class BoardPool {
+    private int capacity;// boards kept ready per configuration
+    private Map<String, BlockingQueue<Long>> pools;
+    private Map<String, String> failures;// why a configuration has no boards, by key
+    private List<int[]> configs;// rows, cols and mines of every configuration
+    private Thread[] workers;
+    private volatile boolean running;
+
+    /**
+     * The BoardPool constructor creates a pool with one worker per core.
+     * 
+     * @param capacity the number of boards kept ready per configuration
+     */
+    public BoardPool(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The BoardPool constructor creates a pool and starts its workers.
+     * 
+     * @param capacity the number of boards kept ready per configuration
+     * @param threads  the number of worker threads generating boards
+     */
+    public BoardPool(int capacity, int threads) {
+        this.capacity = capacity;
+        this.pools = new ConcurrentHashMap<>();
+        this.failures = new ConcurrentHashMap<>();
+        this.configs = new CopyOnWriteArrayList<>();
+        this.running = true;
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = new SplittableRandom();
+            workers[i] = new Thread(() -> fill(random), "board-pool-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * The method registers a configuration, so the workers start generating
+     * boards for it.
+     * 
+     * @param rows  the number of rows of the board
+     * @param cols  the number of columns of the board
+     * @param mines the number of mines on the board
+     */
+    public void register(int rows, int cols, int mines) {
+        if (pools.putIfAbsent(key(rows, cols, mines), new ArrayBlockingQueue<>(capacity)) == null) {
+            configs.add(new int[] { rows, cols, mines });
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The method takes the seed of a no-guess board from the pool, waiting
+     * for a worker to generate one if the pool of the configuration is empty.
+     * The configuration is registered if it was not. Boards are only ever
+     * generated by the workers, so a caller that must not block, such as the
+     * event dispatch thread, calls this from a background thread. The board is
+     * placed with `setMines(mines, seed, startRow(rows), startCol(cols))`, as
+     * GameEngine.restart(seed, startRow, startCol) does.
+     * 
+     * @param rows  the number of rows of the board
+     * @param cols  the number of columns of the board
+     * @param mines the number of mines on the board
+     * @return the seed of a board that can be cleared without guessing
+     * @throws InterruptedException  if the thread is interrupted while waiting
+     * @throws IllegalStateException if no such board can be found, or the
+     *                               pool is shut down and empty
+     */
+    public long takeSeed(int rows, int cols, int mines) throws InterruptedException {
+        String key = key(rows, cols, mines);
+        register(rows, cols, mines);
+        BlockingQueue<Long> pool = pools.get(key);
+        while (true) {
+            String failure = failures.get(key);
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+            if (!running && pool.isEmpty()) {
+                throw new IllegalStateException("The board pool is shut down");
+            }
+            // woken up now and then to notice a failure of the workers
+            Long seed = pool.poll(100, TimeUnit.MILLISECONDS);
+            if (seed != null) {
+                synchronized (this) {
+                    notifyAll();
+                }
+                return seed;
+            }
+        }
+    }
+
+    /**
+     * The method takes a no-guess board from the pool, with its mines placed
+     * and no cell revealed, waiting for one as takeSeed() does. It can only
+     * be cleared without guessing if the first click is on the start cell,
+     * startRow() and startCol().
+     * 
+     * @param rows  the number of rows of the board
+     * @param cols  the number of columns of the board
+     * @param mines the number of mines on the board
+     * @return a board that can be cleared without guessing
+     * @throws InterruptedException  if the thread is interrupted while waiting
+     * @throws IllegalStateException if no such board can be found
+     */
+    public Board take(int rows, int cols, int mines) throws InterruptedException {
+        long seed = takeSeed(rows, cols, mines);
+        Board board = new Board(0, rows, cols, seed);
+        board.setMines(mines, seed, startRow(rows), startCol(cols));
+        return board;
+    }
+
+    /**
+     * The method starts the next game of an engine on a no-guess board from
+     * the pool, of the size of its board, with the start region open, waiting
+     * for a board as takeSeed() does. Opening the start cell is part of the
+     * restart, see GameEngine.restart(seed, startRow, startCol).
+     * 
+     * @param engine the game to restart
+     * @return the cells revealed by opening the start cell
+     * @throws InterruptedException  if the thread is interrupted while waiting
+     * @throws IllegalStateException if no such board can be found
+     */
+    public ChangeSet restart(GameEngine engine) throws InterruptedException {
+        Board board = engine.getBoard();
+        long seed = takeSeed(board.getRows(), board.getCols(), board.getNumOfMines());
+        return engine.restart(seed, startRow(board.getRows()), startCol(board.getCols()));
+    }
+
+    /**
+     * The method returns the number of boards ready for a configuration.
+     * 
+     * @return the number of pooled boards
+     */
+    public int available(int rows, int cols, int mines) {
+        BlockingQueue<Long> pool = pools.get(key(rows, cols, mines));
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * The method stops the workers. Boards already in the pool can still be
+     * taken.
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * The method returns the row of the first click on a pooled board.
+     */
+    public static int startRow(int rows) {
+        return rows / 2;
+    }
+
+    /**
+     * The method returns the column of the first click on a pooled board.
+     */
+    public static int startCol(int cols) {
+        return cols / 2;
+    }
+
+    /**
+     * The loop of a worker thread: generate a board for a configuration whose
+     * pool is not full, or wait until a board is taken.
+     */
+    private void fill(SplittableRandom random) {
+        NoGuessGenerator generator = new NoGuessGenerator();
+        int next = 0;
+        while (running) {
+            int[] config = null;
+            for (int i = 0; i < configs.size() && config == null; i++) {
+                int[] candidate = configs.get((next + i) % configs.size());
+                if (pools.get(key(candidate[0], candidate[1], candidate[2])).remainingCapacity() > 0) {
+                    config = candidate;
+                    next = (next + i + 1) % configs.size();
+                }
+            }
+            if (config == null) {
+                synchronized (this) {
+                    try {
+                        wait(1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            int rows = config[0];
+            int cols = config[1];
+            int mines = config[2];
+            long seed;
+            try {
+                seed = generator.generate(rows, cols, mines, startRow(rows), startCol(cols), random);
+            } catch (IllegalStateException e) {
+                // stop trying, takeSeed() reports the failure
+                failures.put(key(rows, cols, mines), e.getMessage());
+                configs.remove(config);
+                continue;
+            }
+            // another worker may have filled the pool meanwhile; the board is dropped then
+            pools.get(key(rows, cols, mines)).offer(seed);
+        }
+    }
+
+    private static String key(int rows, int cols, int mines) {
+        return rows + "x" + cols + "/" + mines;
+    }
+}
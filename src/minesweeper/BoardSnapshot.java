@@ -0,0 +1,131 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The BoardSnapshot class saves a game to a file and loads it back: the
+ * `Board` and the state of its `GameEngine`. The file is a fixed header
+ * followed by the raw mine, revealed and flagged bit
+ * planes of the board, little-endian, so both directions are a single bulk
+ * copy between the heap and a memory-mapped view of the file instead of a
+ * parse of every cell. The counts of adjacent mines are not stored; they are
+ * recomputed from the mine plane on load, which is cheaper than reading them.
+ * 
+ * Header, 48 bytes:
+ * 
+ * <pre>
+ *  0  int   magic "MSWP"
+ *  4  int   format version
+ *  8  int   rows
+ * 12  int   columns
+ * 16  int   mines
+ * 20  int   words per row
+ * 24  long  seed
+ * 32  int   revealed safe cells
+ * 36  int   flags
+ * 40  int   clicks
+ * 44  byte  status, the ordinal of the GameStatus
+ * 45  byte  1 if the game is first-click-safe, plus 2 if it has started
+ * 46  short reserved, 0
+ * </pre>
+ * 
+ * The counters in the header let tools read the state of a game without
+ * loading it, and are checked against the planes on load to catch damaged
+ * files, as is the number of mines. The undo history is not saved.
+ */
+public final class BoardSnapshot {
+    private static final int MAGIC = 0x4d535750;// "MSWP"
+    private static final int VERSION = 2;// 2: with the state of the engine
+    private static final int HEADER_SIZE = 48;
+
+    private BoardSnapshot() {
+    }
+
+    /**
+     * The method writes a game to a file, replacing it if it exists.
+     * 
+     * @param engine the game to save
+     * @param file   the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(GameEngine engine, Path file) throws IOException {
+        Board board = engine.getBoard();
+        long size = HEADER_SIZE + 3L * 8 * board.planeLength();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(board.getRows());
+            buffer.putInt(board.getCols());
+            buffer.putInt(board.getNumOfMines());
+            buffer.putInt((board.getCols() + 63) >>> 6);
+            buffer.putLong(board.getSeed());
+            buffer.putInt(board.getRevealedCells());
+            buffer.putInt(board.getFlagCount());
+            buffer.putInt(engine.getClickCount());
+            buffer.put((byte) engine.getStatus().ordinal());
+            buffer.put((byte) ((engine.isFirstClickSafe() ? 1 : 0) | (engine.isStarted() ? 2 : 0)));
+            buffer.putShort((short) 0);
+            board.writePlanes(buffer.asLongBuffer());
+            buffer.force();
+        }
+    }
+
+    /**
+     * The method reads a game from a file written by save().
+     * 
+     * @param file the file to read
+     * @return the saved game, with the mines, revealed cells and flags of its
+     *         board, its click count and its status
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    public static GameEngine load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(file + " is not a board snapshot");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a board snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported snapshot version " + version);
+            }
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            int mines = buffer.getInt();
+            int wordsPerRow = buffer.getInt();
+            long seed = buffer.getLong();
+            int revealedCells = buffer.getInt();
+            int flagCount = buffer.getInt();
+            int clicks = buffer.getInt();
+            int status = buffer.get();
+            int bits = buffer.get();
+            buffer.getShort();
+            if (rows <= 0 || cols <= 0 || wordsPerRow != (cols + 63) >>> 6
+                    || size != HEADER_SIZE + 3L * 8 * rows * wordsPerRow || clicks < 0 || status < 0
+                    || status >= GameStatus.values().length || (bits & ~3) != 0) {
+                throw new IOException(file + " has a damaged header");
+            }
+
+            Board board = new Board(mines, rows, cols, seed, buffer.asLongBuffer());
+            if (board.getRevealedCells() != revealedCells || board.getFlagCount() != flagCount
+                    || board.countMinePlane() != mines) {
+                throw new IOException(file + " has damaged planes");
+            }
+            return new GameEngine(board, clicks, GameStatus.values()[status], (bits & 1) != 0,
+                    (bits & 2) != 0);
+        }
+    }
+}
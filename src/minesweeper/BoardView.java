@@ -0,0 +1,399 @@
+package minesweeper;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * The BoardView class paints a whole board in a single component. Every cell
+ * is drawn from the state of the `Board` with one of the tiles of the atlas
+ * from `Assets`, and only the cells inside the clip are painted, so the cost of
+ * a repaint does not depend on the size of the board. Clicks are mapped to
+ * cells by dividing the mouse position by the cell size.
+ * 
+ * The view keeps its own plane of the cells it shows as revealed, which only
+ * changes on the event dispatch thread through apply() and syncAll(). A move
+ * can thus run on a background thread while the view keeps painting the board
+ * as it was, and the revealed cells appear as they are applied.
+ * 
+ * Hints can be shown over the hidden cells from a `Solver.Result`: certainly
+ * safe cells are tinted green and every other hidden cell red, the stronger
+ * the likelier it holds a mine.
+ */
+public class BoardView extends JComponent implements Scrollable {
+    /**
+     * The CellListener interface receives the clicks on the cells of the view.
+     */
+    public interface CellListener {
+        /**
+         * The method is called when a cell is left-clicked.
+         */
+        void cellClicked(int row, int col);
+
+        /**
+         * The method is called when a cell is right-clicked.
+         */
+        void cellRightClicked(int row, int col);
+    }
+
+    private static final Color SAFE_HINT = new Color(0, 200, 0, 110);
+    private static final Color[] MINE_HINTS = new Color[17];// red tints by probability in sixteenths
+
+    private Board board;
+    private int cellSize;// width and height of a cell in pixels
+    private Image atlas;// all tiles side by side, see Assets.getTileAtlas()
+    private boolean showMines;// true once the game is lost
+    private ChangeSet exploded;// cells whose mine was revealed by the player
+    private int hoverRow = -1;// cell under the mouse
+    private int hoverCol = -1;
+    private long[] shown;// one bit per cell index, set if the cell is shown revealed
+    private Solver.Result hints;// mine probabilities shown over the hidden cells, or null
+
+    /**
+     * The BoardView constructor creates a view of the board and renders the
+     * tiles for the given cell size.
+     * 
+     * @param board    the board to paint
+     * @param cellSize the width and height of a cell in pixels
+     * @param listener receives the clicks on the cells
+     */
+    public BoardView(Board board, int cellSize, CellListener listener) {
+        this.board = board;
+        this.cellSize = cellSize;
+        this.exploded = new ChangeSet();
+        this.atlas = Assets.getTileAtlas(cellSize);
+        this.shown = new long[(int) (((long) board.getRows() * board.getCols() + 63) >>> 6)];
+        syncAll();
+        setOpaque(true);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            /**
+             * The method hands left and right clicks on a cell to the listener.
+             * 
+             * @param e contains information about the mouse event that occurred
+             */
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = e.getY() / cellSize;
+                int col = e.getX() / cellSize;
+                if (row >= board.getRows() || col >= board.getCols()) {
+                    return;
+                }
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    listener.cellRightClicked(row, col);
+                } else if (SwingUtilities.isLeftMouseButton(e)) {
+                    listener.cellClicked(row, col);
+                }
+            }
+
+            /**
+             * The method highlights the cell under the mouse.
+             * 
+             * @param e contains information about the mouse event that occurred
+             */
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHover(e.getY() / cellSize, e.getX() / cellSize);
+            }
+
+            /**
+             * The method removes the highlight when the mouse leaves the view.
+             * 
+             * @param e provides information about the event
+             */
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHover(-1, -1);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * The method shows the current state of the cells changed by a move and
+     * repaints them.
+     * 
+     * @param changes the cells changed by a move
+     */
+    public void apply(ChangeSet changes) {
+        apply(changes, 0, changes.size());
+    }
+
+    /**
+     * The method shows the current state of a range of the cells changed by a
+     * move and repaints the smallest rectangle holding them, so a large move
+     * can be shown a frame at a time.
+     * 
+     * @param changes the cells changed by a move
+     * @param from    the first change of the range
+     * @param to      the end of the range, exclusive
+     */
+    public void apply(ChangeSet changes, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int cols = board.getCols();
+        int minRow = Integer.MAX_VALUE, maxRow = -1, minCol = Integer.MAX_VALUE, maxCol = -1;
+        for (int k = from; k < to; k++) {
+            int cell = changes.get(k);
+            int row = cell / cols;
+            int col = cell - row * cols;
+            if (board.isRevealed(row, col)) {
+                shown[cell >>> 6] |= 1L << cell;
+            } else {
+                shown[cell >>> 6] &= ~(1L << cell);
+            }
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        repaint(minCol * cellSize, minRow * cellSize, (maxCol - minCol + 1) * cellSize,
+                (maxRow - minRow + 1) * cellSize);
+    }
+
+    /**
+     * The method shows the current state of every cell of the board, after a
+     * change that was not tracked cell by cell, and repaints the view.
+     */
+    public void syncAll() {
+        int cols = board.getCols();
+        for (int i = 0; i < board.getRows(); i++) {
+            for (int j = 0; j < cols; j++) {
+                int cell = i * cols + j;
+                if (board.isRevealed(i, j)) {
+                    shown[cell >>> 6] |= 1L << cell;
+                } else {
+                    shown[cell >>> 6] &= ~(1L << cell);
+                }
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * The method checks if the view shows a cell as revealed.
+     */
+    private boolean isShown(int row, int col) {
+        int cell = row * board.getCols() + col;
+        return (shown[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * The method repaints the smallest rectangle that holds all the cells
+     * changed by a move.
+     * 
+     * @param changes the cells changed by the move
+     */
+    public void repaintCells(ChangeSet changes) {
+        if (changes.size() == 0) {
+            return;
+        }
+        int cols = board.getCols();
+        int minRow = Integer.MAX_VALUE, maxRow = -1, minCol = Integer.MAX_VALUE, maxCol = -1;
+        for (int k = 0; k < changes.size(); k++) {
+            int row = changes.get(k) / cols;
+            int col = changes.get(k) - row * cols;
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        repaint(minCol * cellSize, minRow * cellSize, (maxCol - minCol + 1) * cellSize,
+                (maxRow - minRow + 1) * cellSize);
+    }
+
+    /**
+     * The method shows every mine on the board after the game is lost. Mines
+     * among the given cells are drawn red, replacing those of an earlier loss
+     * that was undone.
+     * 
+     * @param changes the cells revealed by the losing move
+     */
+    public void showMines(ChangeSet changes) {
+        long start = Metrics.start();
+        exploded.clear();
+        for (int k = 0; k < changes.size(); k++) {
+            int cell = changes.get(k);
+            if (board.hasMine(cell / board.getCols(), cell % board.getCols())) {
+                exploded.add(cell);
+            }
+        }
+        showMines = true;
+        repaint();
+        Metrics.record(Metrics.SHOW_MINES, start, changes.size());
+    }
+
+    /**
+     * The method checks if the mines are shown.
+     * 
+     * @return true between showMines() and hideMines()
+     */
+    public boolean isShowingMines() {
+        return showMines;
+    }
+
+    /**
+     * The method shows the mine probabilities of an analysis over the hidden
+     * cells, or hides them. The result is read while painting on the event
+     * dispatch thread, so it must have its probabilities computed and must
+     * not change afterwards.
+     * 
+     * @param hints the analysis of the board as shown, or null to hide the
+     *              hints
+     */
+    public void setHints(Solver.Result hints) {
+        if (hints != this.hints) {
+            this.hints = hints;
+            repaint();
+        }
+    }
+
+    /**
+     * The method hides the mines again, for example when a replay seeks back
+     * to before the game was lost or the losing move is undone.
+     */
+    public void hideMines() {
+        exploded.clear();
+        showMines = false;
+        repaint();
+    }
+
+    /**
+     * The method paints the cells inside the clip rectangle.
+     * 
+     * @param g the graphics context to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int firstRow = Math.max(0, clip.y / cellSize);
+        int lastRow = Math.min(board.getRows() - 1, (clip.y + clip.height - 1) / cellSize);
+        int firstCol = Math.max(0, clip.x / cellSize);
+        int lastCol = Math.min(board.getCols() - 1, (clip.x + clip.width - 1) / cellSize);
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                int x = j * cellSize;
+                int y = i * cellSize;
+                int tx = tileOf(i, j) * cellSize;
+                g.drawImage(atlas, x, y, x + cellSize, y + cellSize, tx, 0, tx + cellSize, cellSize, null);
+                if (hints != null && !isShown(i, j) && !board.isFlagged(i, j)) {
+                    g.setColor(hintColor(hints.getProbability(i, j)));
+                    g.fillRect(x, y, cellSize, cellSize);
+                }
+            }
+        }
+        if (hoverRow >= firstRow && hoverRow <= lastRow && hoverCol >= firstCol && hoverCol <= lastCol
+                && !isShown(hoverRow, hoverCol)) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
+            g2.setColor(Color.LIGHT_GRAY);
+            g2.fillRect(hoverCol * cellSize, hoverRow * cellSize, cellSize, cellSize);
+            g2.dispose();
+        }
+    }
+
+    /**
+     * The method returns the tint of a hidden cell with the given mine
+     * probability.
+     */
+    private static Color hintColor(double probability) {
+        if (probability == 0) {
+            return SAFE_HINT;
+        }
+        int level = (int) Math.ceil(probability * 16);
+        if (MINE_HINTS[level] == null) {
+            MINE_HINTS[level] = new Color(230, 0, 0, 20 + level * 9);
+        }
+        return MINE_HINTS[level];
+    }
+
+    /**
+     * The method returns the tile that shows the current state of a cell.
+     */
+    private int tileOf(int row, int col) {
+        if (isShown(row, col) && !board.hasMine(row, col)) {
+            return board.countAdjacentMines(row, col);
+        }
+        if (showMines && board.hasMine(row, col)) {
+            int cell = row * board.getCols() + col;
+            for (int k = 0; k < exploded.size(); k++) {
+                if (exploded.get(k) == cell) {
+                    return Assets.TILE_RED_MINE;
+                }
+            }
+            return Assets.TILE_MINE;
+        }
+        return board.isFlagged(row, col) ? Assets.TILE_FLAG : Assets.TILE_HIDDEN;
+    }
+
+    /**
+     * The method moves the highlight to another cell and repaints the two cells
+     * involved.
+     */
+    private void setHover(int row, int col) {
+        if (row == hoverRow && col == hoverCol) {
+            return;
+        }
+        if (hoverRow >= 0) {
+            repaint(hoverCol * cellSize, hoverRow * cellSize, cellSize, cellSize);
+        }
+        hoverRow = row;
+        hoverCol = col;
+        if (hoverRow >= 0) {
+            repaint(hoverCol * cellSize, hoverRow * cellSize, cellSize, cellSize);
+        }
+    }
+
+    /**
+     * The method returns the size needed to show the whole board.
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(board.getCols() * cellSize, board.getRows() * cellSize);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, 30 * cellSize), Math.min(size.height, 20 * cellSize));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return cellSize;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        return Math.max(cellSize, extent - cellSize);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
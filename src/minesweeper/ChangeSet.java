@@ -0,0 +1,60 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * The ChangeSet class collects the cells changed by a move on the board. Cells
+ * are stored as their index `row * cols + col` in a growing int array, so a
+ * move that changes millions of cells does not create an object per cell.
+ */
+public class ChangeSet {
+    private int[] cells;
+    private int size;
+
+    /**
+     * The ChangeSet constructor creates an empty change set.
+     */
+    public ChangeSet() {
+        this.cells = new int[16];
+        this.size = 0;
+    }
+
+    /**
+     * The method adds a cell to the change set.
+     * 
+     * @param cell the index `row * cols + col` of the changed cell
+     */
+    public void add(int cell) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, (int) Math.min(Integer.MAX_VALUE - 8, cells.length * 2L));
+        }
+        cells[size++] = cell;
+    }
+
+    /**
+     * The method returns the cell stored at the given position.
+     * 
+     * @param i the position in the change set, between 0 and size() - 1
+     * @return the index `row * cols + col` of the changed cell
+     */
+    public int get(int i) {
+        return cells[i];
+    }
+
+    /**
+     * The method returns the number of changed cells.
+     * 
+     * @return the number of cells in the change set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The method empties the change set so it can be reused for the next move.
+     * The array is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
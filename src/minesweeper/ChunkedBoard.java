@@ -0,0 +1,423 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ChunkedBoard class is the board of the endless mode. The field has no
+ * edges: it is split into chunks of 64 x 64 cells that are created when a cell
+ * in them is first used. Whether a cell has a mine is a hash of the seed and
+ * the coordinates of the cell, so a chunk can be built without its neighbours,
+ * counts across chunk borders are read straight from the hash, and a chunk
+ * that was thrown away is rebuilt exactly as it was.
+ * 
+ * The mine planes of at most `capacity` chunks are kept, in least recently
+ * used order; chunks inside the viewport are never evicted. Chunks the player
+ * has revealed or flagged cells in keep only those two planes once their mines
+ * are evicted, so the memory used is bounded by the cache plus what the player
+ * actually touched, however far they explore.
+ * 
+ * Since the field has no edges an opening can go on forever, so a flood fill
+ * reveals a limited number of cells per call. The revealed cells without
+ * adjacent mines whose neighbours the fill has not reached yet are queued,
+ * and fill() goes on with them later, those on screen first; a cell is
+ * never left revealed as a zero next to hidden cells without being queued.
+ * 
+ * The cells around (0, 0) never have a mine, so the game can start there.
+ * Cells in a change set are stored as two entries, the row and then the
+ * column, since the coordinates are not bounded; `EndlessGame` plays the
+ * board with a view of its own for that reason.
+ */
+public class ChunkedBoard {
+    private static final int SHIFT = 6;// log2 of the chunk size
+    private static final int SIZE = 1 << SHIFT;// width and height of a chunk
+    private static final int MASK = SIZE - 1;
+
+    private long seed;
+    private double density;// probability that a cell has a mine
+    private long threshold;// a cell has a mine if its hash is below this
+    private int capacity;// chunks whose mines are kept
+    private LinkedHashMap<Long, Chunk> cache;// loaded chunks, least recently used first
+    private HashMap<Long, Chunk> touched;// chunks with revealed or flagged cells
+    private int viewTop, viewLeft, viewBottom = -1, viewRight = -1;// cells that must stay loaded
+    private ArrayDeque<Long> pending;// revealed cells without adjacent mines, their neighbours still to reveal
+    private long revealedCells;// revealed cells without a mine
+    private long flagCount;
+
+    /**
+     * The Chunk class holds the cells of one chunk as bit planes, one word per
+     * row. The revealed and flagged planes are allocated when the player first
+     * touches the chunk.
+     */
+    private static class Chunk {
+        private final int chunkRow;
+        private final int chunkCol;
+        private long[] mines;
+        private long[] revealed;
+        private long[] flagged;
+
+        Chunk(int chunkRow, int chunkCol) {
+            this.chunkRow = chunkRow;
+            this.chunkCol = chunkCol;
+        }
+    }
+
+    /**
+     * The ChunkedBoard constructor creates an endless board.
+     * 
+     * @param seed     the seed the mines are derived from
+     * @param density  the probability that a cell has a mine, below 1
+     * @param capacity the number of chunks whose mines are kept in memory
+     */
+    public ChunkedBoard(long seed, double density, int capacity) {
+        if (density < 0 || density >= 1 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid density " + density + " or capacity " + capacity);
+        }
+        this.seed = seed;
+        this.density = density;
+        this.threshold = (long) (density * 0x1p63);
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(capacity * 2, 0.75f, true);
+        this.touched = new HashMap<>();
+        this.pending = new ArrayDeque<>();
+    }
+
+    /**
+     * The method sets the cells that are on screen. Their chunks are not
+     * evicted while they are visible.
+     * 
+     * @param top    the first visible row
+     * @param left   the first visible column
+     * @param bottom the last visible row
+     * @param right  the last visible column
+     */
+    public void setViewport(int top, int left, int bottom, int right) {
+        this.viewTop = top;
+        this.viewLeft = left;
+        this.viewBottom = bottom;
+        this.viewRight = right;
+    }
+
+    /**
+     * The method tells whether a cell has a mine, computing it from the seed
+     * without loading its chunk.
+     */
+    private boolean mineAt(int row, int col) {
+        if (row >= -1 && row <= 1 && col >= -1 && col <= 1) {
+            return false;
+        }
+        long z = seed + row * 0x9e3779b97f4a7c15L + col * 0xc2b2ae3d27d4eb4fL;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z ^= z >>> 31;
+        return (z >>> 1) < threshold;
+    }
+
+    /**
+     * The method returns the chunk holding a cell, loading or building it if
+     * needed and evicting the least recently used chunks that are over the
+     * capacity.
+     */
+    private Chunk chunk(int row, int col) {
+        int chunkRow = row >> SHIFT;
+        int chunkCol = col >> SHIFT;
+        Long key = pack(chunkRow, chunkCol);
+        Chunk chunk = cache.get(key);
+        if (chunk != null) {
+            return chunk;
+        }
+        chunk = touched.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(chunkRow, chunkCol);
+        }
+        chunk.mines = new long[SIZE];
+        int top = chunkRow << SHIFT;
+        int left = chunkCol << SHIFT;
+        for (int i = 0; i < SIZE; i++) {
+            long word = 0;
+            for (int j = 0; j < SIZE; j++) {
+                if (mineAt(top + i, left + j)) {
+                    word |= 1L << j;
+                }
+            }
+            chunk.mines[i] = word;
+        }
+        cache.put(key, chunk);
+        evict(chunk);
+        return chunk;
+    }
+
+    /**
+     * The method drops the mine planes of the least recently used chunks until
+     * the cache is back at its capacity, skipping chunks in the viewport. A
+     * chunk the player touched keeps its revealed and flagged planes.
+     * 
+     * @param loaded the chunk just loaded, which is kept
+     */
+    private void evict(Chunk loaded) {
+        Iterator<Map.Entry<Long, Chunk>> entries = cache.entrySet().iterator();
+        while (cache.size() > capacity && entries.hasNext()) {
+            Chunk chunk = entries.next().getValue();
+            if (chunk == loaded) {
+                break;
+            }
+            int top = chunk.chunkRow << SHIFT;
+            int left = chunk.chunkCol << SHIFT;
+            if (top <= viewBottom && top + MASK >= viewTop && left <= viewRight && left + MASK >= viewLeft) {
+                continue;
+            }
+            entries.remove();
+            chunk.mines = null;
+        }
+    }
+
+    /**
+     * The method makes a chunk hold revealed and flagged planes and remembers
+     * it for good.
+     */
+    private Chunk touch(int row, int col) {
+        Chunk chunk = chunk(row, col);
+        if (chunk.revealed == null) {
+            chunk.revealed = new long[SIZE];
+            chunk.flagged = new long[SIZE];
+            touched.put(pack(chunk.chunkRow, chunk.chunkCol), chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * The method checks if a cell has a mine.
+     * 
+     * @param row the row of the cell, any int
+     * @param col the column of the cell, any int
+     * @return true if the cell has a mine
+     */
+    public boolean hasMine(int row, int col) {
+        return (chunk(row, col).mines[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    /**
+     * The method checks if a cell has been revealed.
+     * 
+     * @param row the row of the cell, any int
+     * @param col the column of the cell, any int
+     * @return true if the cell is revealed
+     */
+    public boolean isRevealed(int row, int col) {
+        long[] plane = chunk(row, col).revealed;
+        return plane != null && (plane[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    /**
+     * The method checks if a cell is flagged.
+     * 
+     * @param row the row of the cell, any int
+     * @param col the column of the cell, any int
+     * @return true if the cell is flagged
+     */
+    public boolean isFlagged(int row, int col) {
+        long[] plane = chunk(row, col).flagged;
+        return plane != null && (plane[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    /**
+     * The method flags or unflags a hidden cell.
+     * 
+     * @param row     the row of the cell, any int
+     * @param col     the column of the cell, any int
+     * @param flagged true to flag the cell, false to remove its flag
+     */
+    public void setFlagged(int row, int col, boolean flagged) {
+        if (isRevealed(row, col) || isFlagged(row, col) == flagged) {
+            return;
+        }
+        touch(row, col).flagged[row & MASK] ^= 1L << (col & MASK);
+        flagCount += flagged ? 1 : -1;
+    }
+
+    /**
+     * The method returns the number of mines around a cell. Neighbours in the
+     * same chunk are read from its mine plane, the others from the hash, so no
+     * other chunk is loaded.
+     * 
+     * @param row the row of the cell, any int
+     * @param col the column of the cell, any int
+     * @return the number of mines among the eight neighbours
+     */
+    public int countAdjacentMines(int row, int col) {
+        Chunk chunk = chunk(row, col);
+        int r = row & MASK;
+        int c = col & MASK;
+        int count = 0;
+        for (int i = -1; i <= 1; i++) {
+            if (r + i >= 0 && r + i < SIZE && c > 0 && c < MASK) {
+                count += Long.bitCount(chunk.mines[r + i] >>> (c - 1) & 7);
+            } else {
+                for (int j = -1; j <= 1; j++) {
+                    if (mineAt(row + i, col + j)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count - (int) (chunk.mines[r] >>> c & 1);
+    }
+
+    /**
+     * The method reveals a cell and, if it has no adjacent mines, the region of
+     * cells connected to it through cells without adjacent mines, like
+     * Board.reveal(). Since the field has no edges the fill stops after
+     * `limit` cells; the cells it did not get to are queued and revealed by
+     * later calls of fill().
+     * 
+     * @param row     the row of the cell, any int
+     * @param col     the column of the cell, any int
+     * @param changes the change set the revealed cells are appended to as row
+     *                and column pairs
+     * @param limit   the largest number of cells revealed by one call
+     */
+    public void reveal(int row, int col, ChangeSet changes, int limit) {
+        if (limit < 1 || isRevealed(row, col) || isFlagged(row, col)) {
+            return;
+        }
+        markRevealed(row, col, changes);
+        if (!hasMine(row, col) && countAdjacentMines(row, col) == 0) {
+            // the region of the click goes before fills left over from earlier
+            pending.addFirst(pack(row, col));
+        }
+        fill(changes, limit - 1);
+    }
+
+    /**
+     * The method goes on with the flood fills that stopped at their limit,
+     * revealing at most `limit` cells. While a viewport is set only the
+     * queued cells inside it are filled from; the others stay queued until
+     * the viewport moves over them, so an opening without an end is revealed
+     * as far as the player looks and no further.
+     * 
+     * @param changes the change set the revealed cells are appended to as row
+     *                and column pairs
+     * @param limit   the largest number of cells revealed by this call
+     * @return true if the limit stopped the fill, so that queued cells inside
+     *         the viewport are left
+     */
+    public boolean fill(ChangeSet changes, int limit) {
+        ArrayDeque<Long> away = new ArrayDeque<>();// queued cells outside the viewport
+        int revealed = 0;
+        boolean stopped = false;
+        while (!pending.isEmpty() && !stopped) {
+            long cell = pending.pollFirst();
+            int r = (int) (cell >> 32);
+            int c = (int) cell;
+            if (!inViewport(r, c)) {
+                away.add(cell);
+                continue;
+            }
+            for (int i = r - 1; i <= r + 1 && !stopped; i++) {
+                for (int j = c - 1; j <= c + 1; j++) {
+                    if (isRevealed(i, j) || isFlagged(i, j)) {
+                        continue;
+                    }
+                    if (revealed == limit) {
+                        // the cell has hidden neighbours left, it is filled from again
+                        pending.addFirst(cell);
+                        stopped = true;
+                        break;
+                    }
+                    markRevealed(i, j, changes);
+                    revealed++;
+                    if (countAdjacentMines(i, j) == 0) {
+                        pending.add(pack(i, j));
+                    }
+                }
+            }
+        }
+        pending.addAll(away);
+        return stopped;
+    }
+
+    /**
+     * The method returns the number of revealed cells without adjacent mines
+     * that fill() has still to reveal the neighbours of, on screen or not.
+     * 
+     * @return the number of queued cells
+     */
+    public int getPendingCells() {
+        return pending.size();
+    }
+
+    /**
+     * The method checks if a cell is inside the viewport, which is every cell
+     * while no viewport is set.
+     */
+    private boolean inViewport(int row, int col) {
+        return viewBottom < viewTop
+                || (row >= viewTop && row <= viewBottom && col >= viewLeft && col <= viewRight);
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    /**
+     * The method marks a cell revealed and appends it to the change set.
+     */
+    private void markRevealed(int row, int col, ChangeSet changes) {
+        touch(row, col).revealed[row & MASK] |= 1L << (col & MASK);
+        if (!hasMine(row, col)) {
+            revealedCells++;
+        }
+        changes.add(row);
+        changes.add(col);
+    }
+
+    /**
+     * The method returns the probability that a cell has a mine.
+     * 
+     * @return the mine density of the board
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * The method returns the number of revealed cells without a mine, like
+     * Board.getRevealedCells(); a revealed mine is not counted.
+     * 
+     * @return the number of revealed safe cells
+     */
+    public long getRevealedCells() {
+        return revealedCells;
+    }
+
+    /**
+     * The method returns the number of flagged cells.
+     * 
+     * @return the number of flagged cells
+     */
+    public long getFlagCount() {
+        return flagCount;
+    }
+
+    /**
+     * The method returns the number of chunks whose mines are in memory.
+     * 
+     * @return the number of loaded chunks
+     */
+    public int getLoadedChunks() {
+        return cache.size();
+    }
+
+    /**
+     * The method returns the number of chunks the player has revealed or
+     * flagged cells in.
+     * 
+     * @return the number of touched chunks
+     */
+    public int getTouchedChunks() {
+        return touched.size();
+    }
+}
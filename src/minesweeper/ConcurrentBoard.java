@@ -0,0 +1,198 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentBoard class is a board many threads can play on at once, for
+ * the co-op mode. The mines and counts come from a `Board` and never change,
+ * so they are read without synchronization. The state of the cells is kept in
+ * an AtomicLongArray with two bits per cell, revealed and flagged, 32 cells
+ * per word, and every change is a compare-and-set of the word holding the
+ * cell. Both bits live in the same word, so a reveal and a flag racing for the
+ * same cell cannot both win.
+ * 
+ * A thread that reveals a cell owns it: only the thread whose compare-and-set
+ * set the revealed bit adds the cell to its change set and, for a cell without
+ * adjacent mines, goes on with its neighbours. Overlapping flood fills thus
+ * split the region between them without a lock, every revealed cell is in
+ * exactly one change set, and every revealed cell without adjacent mines has
+ * its neighbours revealed once all fills are done.
+ */
+public class ConcurrentBoard {
+    private static final long REVEALED = 1;// bit of a revealed cell, shifted by 2 * (col & 31)
+    private static final long FLAGGED = 2;// bit of a flagged cell
+
+    private final Board board;// mines and counts, read only
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+    private final AtomicLongArray cells;// two bits per cell
+    private final LongAdder revealedCells;// revealed cells without a mine
+    private final LongAdder flagCount;
+
+    /**
+     * The ConcurrentBoard constructor creates a board with the mines of an
+     * existing board and every cell hidden. The mines of the given board must
+     * not change afterwards.
+     * 
+     * @param board the board holding the mines
+     */
+    public ConcurrentBoard(Board board) {
+        this.board = board;
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.wordsPerRow = (cols + 31) >>> 5;
+        this.cells = new AtomicLongArray(rows * wordsPerRow);
+        this.revealedCells = new LongAdder();
+        this.flagCount = new LongAdder();
+    }
+
+    /**
+     * The method reveals a cell and, if it has no adjacent mines, the region
+     * around it, like Board.reveal(). Cells revealed by other threads at the
+     * same time are left to them, and flagged cells are left alone.
+     * 
+     * @param row     the row of the cell
+     * @param col     the column of the cell
+     * @param changes the change set the cells revealed by this thread are
+     *                appended to
+     * @return true if the cell has a mine
+     */
+    public boolean reveal(int row, int col, ChangeSet changes) {
+        int next = changes.size();
+        if (!claim(row, col)) {
+            return false;
+        }
+        changes.add(row * cols + col);
+        if (board.hasMine(row, col)) {
+            return true;
+        }
+        while (next < changes.size()) {
+            int cell = changes.get(next++);
+            int r = cell / cols;
+            int c = cell - r * cols;
+            if (board.countAdjacentMines(r, c) != 0) {
+                continue;
+            }
+            for (int i = Math.max(0, r - 1); i <= Math.min(r + 1, rows - 1); i++) {
+                for (int j = Math.max(0, c - 1); j <= Math.min(c + 1, cols - 1); j++) {
+                    if (claim(i, j)) {
+                        changes.add(i * cols + j);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The method sets the revealed bit of a hidden, unflagged cell.
+     * 
+     * @return true if this thread revealed the cell
+     */
+    private boolean claim(int row, int col) {
+        int word = row * wordsPerRow + (col >>> 5);
+        int shift = (col & 31) << 1;
+        long mask = (REVEALED | FLAGGED) << shift;
+        while (true) {
+            long value = cells.get(word);
+            if ((value & mask) != 0) {
+                return false;
+            }
+            if (cells.compareAndSet(word, value, value | REVEALED << shift)) {
+                if (!board.hasMine(row, col)) {
+                    revealedCells.increment();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The method places a flag on a hidden cell, or removes it if the cell is
+     * flagged.
+     * 
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the flag changed, false if the cell is revealed
+     */
+    public boolean toggleFlag(int row, int col) {
+        int word = row * wordsPerRow + (col >>> 5);
+        int shift = (col & 31) << 1;
+        while (true) {
+            long value = cells.get(word);
+            if ((value & REVEALED << shift) != 0) {
+                return false;
+            }
+            if (cells.compareAndSet(word, value, value ^ FLAGGED << shift)) {
+                if ((value & FLAGGED << shift) == 0) {
+                    flagCount.increment();
+                } else {
+                    flagCount.decrement();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The method checks if a cell is revealed.
+     * 
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is revealed
+     */
+    public boolean isRevealed(int row, int col) {
+        return (cells.get(row * wordsPerRow + (col >>> 5)) >>> ((col & 31) << 1) & REVEALED) != 0;
+    }
+
+    /**
+     * The method checks if a cell is flagged.
+     * 
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is flagged
+     */
+    public boolean isFlagged(int row, int col) {
+        return (cells.get(row * wordsPerRow + (col >>> 5)) >>> ((col & 31) << 1) & FLAGGED) != 0;
+    }
+
+    /**
+     * The method returns the number of revealed cells without a mine. While
+     * other threads play the value may already be out of date.
+     * 
+     * @return the number of revealed safe cells
+     */
+    public long getRevealedCells() {
+        return revealedCells.sum();
+    }
+
+    /**
+     * The method returns the number of flagged cells. While other threads play
+     * the value may already be out of date.
+     * 
+     * @return the number of flags
+     */
+    public long getFlagCount() {
+        return flagCount.sum();
+    }
+
+    /**
+     * The method checks if every cell without a mine has been revealed.
+     * 
+     * @return true if all safe cells are revealed
+     */
+    public boolean isCleared() {
+        return revealedCells.sum() == (long) rows * cols - board.getNumOfMines();
+    }
+
+    /**
+     * The method returns the board holding the mines and counts.
+     * 
+     * @return the underlying board
+     */
+    public Board getBoard() {
+        return board;
+    }
+}
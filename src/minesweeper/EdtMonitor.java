@@ -0,0 +1,47 @@
+package minesweeper;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+/**
+ * The EdtMonitor class measures how long the Swing event dispatch thread is
+ * blocked by each event. It replaces the system event queue with one that
+ * times every dispatch into the EDT_EVENT histogram of `Metrics`, and emits a
+ * JFR EdtStall event for every event that takes longer than STALL_MILLIS,
+ * long enough for the player to notice.
+ */
+public class EdtMonitor extends EventQueue {
+    public static final long STALL_MILLIS = 50;
+
+    private EdtMonitor() {
+    }
+
+    /**
+     * The method installs the monitor if metrics are enabled.
+     */
+    public static void install() {
+        if (Metrics.ENABLED) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new EdtMonitor());
+        }
+    }
+
+    /**
+     * The method dispatches an event and records how long it took.
+     * 
+     * @param event the event to dispatch
+     */
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long duration = System.nanoTime() - start;
+            Metrics.getLatency(Metrics.EDT_EVENT).record(duration);
+            if (duration > STALL_MILLIS * 1_000_000) {
+                Metrics.recordStall(event.getClass().getSimpleName(), duration);
+            }
+        }
+    }
+}
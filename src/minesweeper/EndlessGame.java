@@ -0,0 +1,283 @@
+package minesweeper;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Random;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.KeyStroke;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * The EndlessGame class plays the endless mode on a `ChunkedBoard`. The window
+ * shows a part of the field without edges and the arrow keys move it; a
+ * left click reveals a hidden cell or chords on a number, a right click flags
+ * a cell, and revealing a mine ends the game. The score is the number of
+ * safe cells revealed; the mines that end the game do not count.
+ * 
+ * The change sets of the board hold row and column pairs, since its
+ * coordinates are not bounded, so the game has a view of its own instead of
+ * `BoardView` and applies the rules itself instead of `GameEngine`. The view
+ * paints only the cells on screen, loading their chunks as it goes.
+ * 
+ * A reveal fills at most FRAME_CELLS cells at once. The rest of the fill is
+ * queued by the board and continued one frame per event while it is on
+ * screen, and again wherever the view is moved to.
+ */
+public class EndlessGame extends JFrame {
+    public static final double DEFAULT_DENSITY = 0.16;
+    public static final int FRAME_CELLS = 4096;// cells revealed per event
+    private static final int VIEW_ROWS = 20;
+    private static final int VIEW_COLS = 30;
+    private static final int CELL_SIZE = 30;// width and height of a cell in pixels
+    private static final int CAPACITY = 64;// chunks whose mines are kept
+    private static final int STEP = 5;// cells the view moves per key press
+    private static final String[] GAME_END_OPTIONS = { "New game", "Quit" };
+
+    private ChunkedBoard board;
+    private double density;
+    private int top;// row of the cell at the top left of the view
+    private int left;// column of the cell at the top left of the view
+    private boolean lost;
+    private boolean filling;// true while a fill is continued in later events
+    private Image atlas;// all tiles side by side, see Assets.getTileAtlas()
+    private JComponent view;
+    private JLabel scoreLabel;// to show the number of revealed safe cells
+    private ChangeSet changes;// cells revealed by the last step, as row and column pairs
+
+    /**
+     * The EndlessGame constructor creates the window of an endless game on a
+     * new field and shows it, with (0, 0), where no mine is, in the middle.
+     * Ctrl+N starts a new game.
+     * 
+     * @param density the probability that a cell has a mine, below 1
+     */
+    public EndlessGame(double density) {
+        this.density = density;
+        this.atlas = Assets.getTileAtlas(CELL_SIZE);
+        this.changes = new ChangeSet();
+        Assets.preload("sad.gif");
+        this.setTitle("Minesweeper endless");
+        this.setLocation(430, 50);
+        this.setResizable(false);
+
+        this.view = new JComponent() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                paintCells(g);
+            }
+
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(VIEW_COLS * CELL_SIZE, VIEW_ROWS * CELL_SIZE);
+            }
+        };
+        view.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = top + e.getY() / CELL_SIZE;
+                int col = left + e.getX() / CELL_SIZE;
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    flag(row, col);
+                } else if (SwingUtilities.isLeftMouseButton(e)) {
+                    click(row, col);
+                }
+            }
+        });
+        this.scoreLabel = new JLabel("", SwingConstants.CENTER);
+        scoreLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.add(view, BorderLayout.CENTER);
+        panel.add(scoreLabel, BorderLayout.SOUTH);
+        this.add(panel, BorderLayout.CENTER);
+
+        bind(panel, KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "up", -STEP, 0);
+        bind(panel, KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "down", STEP, 0);
+        bind(panel, KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0), "left", 0, -STEP);
+        bind(panel, KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0), "right", 0, STEP);
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_N, InputEvent.CTRL_DOWN_MASK), "newGame");
+        panel.getActionMap().put("newGame", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                newGame();
+            }
+        });
+        newGame();
+        this.pack();
+        this.setVisible(true);
+        this.setDefaultCloseOperation(EXIT_ON_CLOSE);
+    }
+
+    /**
+     * The method makes a key move the view by the given number of rows and
+     * columns.
+     */
+    private void bind(JComponent panel, KeyStroke key, String name, int rows, int cols) {
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(key, name);
+        panel.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                top += rows;
+                left += cols;
+                moved();
+            }
+        });
+    }
+
+    /**
+     * The method starts a new game on a new field, centred on (0, 0).
+     */
+    public void newGame() {
+        this.board = new ChunkedBoard(new Random().nextLong(), density, CAPACITY);
+        this.top = -VIEW_ROWS / 2;
+        this.left = -VIEW_COLS / 2;
+        this.lost = false;
+        moved();
+    }
+
+    /**
+     * The method reveals a hidden cell, or chords on a revealed number: if as
+     * many neighbours are flagged as the number says, every other hidden
+     * neighbour is revealed. Revealing a mine ends the game.
+     */
+    private void click(int row, int col) {
+        if (lost || board.isFlagged(row, col)) {
+            return;
+        }
+        changes.clear();
+        if (!board.isRevealed(row, col)) {
+            board.reveal(row, col, changes, FRAME_CELLS);
+            lost = board.hasMine(row, col);
+        } else if (!board.hasMine(row, col)) {
+            int flags = 0;
+            for (int i = row - 1; i <= row + 1; i++) {
+                for (int j = col - 1; j <= col + 1; j++) {
+                    if (board.isFlagged(i, j)) {
+                        flags++;
+                    }
+                }
+            }
+            int count = board.countAdjacentMines(row, col);
+            if (count == 0 || flags != count) {
+                return;
+            }
+            for (int i = row - 1; i <= row + 1; i++) {
+                for (int j = col - 1; j <= col + 1; j++) {
+                    if (!board.isRevealed(i, j) && !board.isFlagged(i, j)) {
+                        board.reveal(i, j, changes, FRAME_CELLS);
+                        lost |= board.hasMine(i, j);
+                    }
+                }
+            }
+        }
+        moved();
+        if (lost) {
+            gameOver();
+        }
+    }
+
+    /**
+     * The method flags a hidden cell, or removes its flag.
+     */
+    private void flag(int row, int col) {
+        if (lost) {
+            return;
+        }
+        board.setFlagged(row, col, !board.isFlagged(row, col));
+        view.repaint((col - left) * CELL_SIZE, (row - top) * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+    }
+
+    /**
+     * The method tells the board what is on screen and repaints it after the
+     * view moved or cells were revealed, and continues the queued fills on
+     * screen unless that is already under way.
+     */
+    private void moved() {
+        board.setViewport(top, left, top + VIEW_ROWS - 1, left + VIEW_COLS - 1);
+        scoreLabel.setText("Revealed: " + board.getRevealedCells());
+        view.repaint();
+        if (!filling && !lost) {
+            filling = true;
+            SwingUtilities.invokeLater(this::fill);
+        }
+    }
+
+    /**
+     * The method reveals the next frame of the queued fills on screen and
+     * posts itself again while the board has more of them.
+     */
+    private void fill() {
+        changes.clear();
+        boolean more = !lost && board.fill(changes, FRAME_CELLS);
+        if (changes.size() > 0) {
+            scoreLabel.setText("Revealed: " + board.getRevealedCells());
+            view.repaint();
+        }
+        if (more) {
+            SwingUtilities.invokeLater(this::fill);
+        } else {
+            filling = false;
+        }
+    }
+
+    /**
+     * The method paints the cells on screen. Once the game is lost the mines
+     * on screen are shown, the revealed ones red.
+     */
+    private void paintCells(Graphics g) {
+        for (int i = 0; i < VIEW_ROWS; i++) {
+            for (int j = 0; j < VIEW_COLS; j++) {
+                int tx = tileOf(top + i, left + j) * CELL_SIZE;
+                int x = j * CELL_SIZE;
+                int y = i * CELL_SIZE;
+                g.drawImage(atlas, x, y, x + CELL_SIZE, y + CELL_SIZE, tx, 0, tx + CELL_SIZE, CELL_SIZE, null);
+            }
+        }
+    }
+
+    /**
+     * The method returns the tile that shows the current state of a cell.
+     */
+    private int tileOf(int row, int col) {
+        boolean revealed = board.isRevealed(row, col);
+        if (lost && board.hasMine(row, col)) {
+            return revealed ? Assets.TILE_RED_MINE : Assets.TILE_MINE;
+        }
+        if (revealed) {
+            return board.countAdjacentMines(row, col);
+        }
+        return board.isFlagged(row, col) ? Assets.TILE_FLAG : Assets.TILE_HIDDEN;
+    }
+
+    /**
+     * The method shows the score once a mine is revealed and starts a new
+     * game or exits the program, as the player chooses. Closing the dialog
+     * leaves the field on screen; Ctrl+N starts the next game.
+     */
+    private void gameOver() {
+        int choice = JOptionPane.showOptionDialog(this,
+                "Game Over! You hit a mine.\n You revealed " + board.getRevealedCells() + " cells.",
+                "Game Over", JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE,
+                Assets.getIcon("sad.gif"), GAME_END_OPTIONS, GAME_END_OPTIONS[0]);
+        if (choice == 0) {
+            newGame();
+        } else if (choice == 1) {
+            System.exit(0);
+        }
+    }
+}
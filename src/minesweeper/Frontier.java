@@ -0,0 +1,454 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Frontier class keeps the analysis of a `Solver` up to date while a game
+ * is played, for hints and probability overlays that are asked for after
+ * every move; a `GameEngine` keeps one once it is asked for, see
+ * GameEngine.getFrontier(). It remembers the cells decided by propagation and
+ * the enumerated components of the undecided cells next to the revealed
+ * numbers. After a move only the numbers around the newly revealed cells, and
+ * the components sharing a hidden cell with them, are solved again; every
+ * other component keeps its cached enumeration.
+ * 
+ * The safe cells and the mines are kept up to date the same way: a cached
+ * component knows which of its cells are safe or mines in every one of its
+ * solutions, and the frontier sums the fewest and most mines of the
+ * components. As long as the mines left can be placed on the other hidden
+ * cells whatever the components hold, which is all but the end of a game,
+ * those cells are exactly the certain ones and the result is built from them
+ * without looking at the other components. Probabilities depend on the mine
+ * counts of every component, so they are combined over all of them, once per
+ * move and only when first asked for.
+ * 
+ * Revealing a cell only adds information, so earlier decisions stay valid.
+ * Flags are ignored, as by the Solver. A move that hides cells again, such as
+ * an undo, rebuilds the whole analysis.
+ */
+public class Frontier {
+    private Board board;
+    private Solver solver;
+    private int cols;
+    private long[] revealed;// one bit per cell index, the revealed cells seen so far
+    private long[] queued;// one bit per cell index, the numbers queued for the current update
+    private long[] listed;// one bit per cell index, the cells in knownCells
+    private byte[] decided;// Solver.SAFE or Solver.MINE for the hidden cells decided so far
+    private byte[] known;// Solver.SAFE or Solver.MINE for the decided cells and the certain cells of components
+    private ChangeSet knownCells;// the cells known, some of them maybe no longer known
+    private int[] componentOf;// slot of the component of an undecided frontier cell, -1 if none
+    private List<Solver.Component> components;// cached components by slot, null if the slot is free
+    private ArrayDeque<Integer> freeSlots;
+    private int hidden;// number of hidden cells
+    private int decidedHidden;// number of hidden cells decided by propagation
+    private int decidedMines;// number of those that are mines
+    private int componentCells;// number of cells of the cached components
+    private int inexactCells;// number of those in components that ran out of budget
+    private int unsolvable;// number of exact components without a solution
+    private int minSum;// fewest mines of the exact components together
+    private int maxSum;// most mines of the exact components together
+    private int version;// counts the changes of the analysis
+    private Solver.Result result;// the result of the current state, null until asked for
+
+    /**
+     * The Frontier constructor analyses the visible state of a board with a
+     * solver enumerating on the common fork-join pool.
+     * 
+     * @param board the board to follow
+     */
+    public Frontier(Board board) {
+        this(board, new Solver());
+    }
+
+    /**
+     * The Frontier constructor analyses the visible state of a board.
+     * 
+     * @param board  the board to follow
+     * @param solver the solver the components are enumerated with
+     */
+    public Frontier(Board board, Solver solver) {
+        this.board = board;
+        this.solver = solver;
+        rebuild();
+    }
+
+    /**
+     * The method drops everything cached and analyses the whole visible state
+     * of the board again, after a restart or a load.
+     */
+    public void rebuild() {
+        int rows = board.getRows();
+        this.cols = board.getCols();
+        int words = (int) (((long) rows * cols + 63) >>> 6);
+        this.revealed = new long[words];
+        this.queued = new long[words];
+        this.listed = new long[words];
+        this.decided = new byte[rows * cols];
+        this.known = new byte[rows * cols];
+        this.knownCells = new ChangeSet();
+        this.componentOf = new int[rows * cols];
+        Arrays.fill(componentOf, -1);
+        this.components = new ArrayList<>();
+        this.freeSlots = new ArrayDeque<>();
+        this.hidden = 0;
+        this.decidedHidden = 0;
+        this.decidedMines = 0;
+        this.componentCells = 0;
+        this.inexactCells = 0;
+        this.unsolvable = 0;
+        this.minSum = 0;
+        this.maxSum = 0;
+        this.result = null;
+        version++;
+        ChangeSet numbers = new ChangeSet();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int cell = r * cols + c;
+                if (!board.isRevealed(r, c)) {
+                    hidden++;
+                    continue;
+                }
+                revealed[cell >>> 6] |= 1L << cell;
+                queue(cell, numbers);
+            }
+        }
+        analyse(numbers);
+    }
+
+    /**
+     * The method updates the analysis after a move.
+     * 
+     * @param changes the cells changed by the move
+     */
+    public void update(ChangeSet changes) {
+        ChangeSet numbers = new ChangeSet();
+        int hiddenBefore = hidden;
+        for (int k = 0; k < changes.size(); k++) {
+            int cell = changes.get(k);
+            int row = cell / cols;
+            int col = cell - row * cols;
+            boolean before = (revealed[cell >>> 6] & (1L << cell)) != 0;
+            if (board.isRevealed(row, col) == before) {
+                // a flag, or a cell changed twice
+                continue;
+            }
+            if (before) {
+                rebuild();
+                return;
+            }
+            revealed[cell >>> 6] |= 1L << cell;
+            hidden--;
+            if (decided[cell] != Solver.UNKNOWN) {
+                decidedHidden--;
+                if (decided[cell] == Solver.MINE) {
+                    decidedMines--;
+                }
+                decided[cell] = Solver.UNKNOWN;
+                known[cell] = Solver.UNKNOWN;
+            }
+            if (componentOf[cell] >= 0) {
+                drop(componentOf[cell], numbers);
+            }
+            // the cell is a new number, and its revealed neighbours lost a hidden cell
+            for (int i = Math.max(0, row - 1); i <= Math.min(row + 1, board.getRows() - 1); i++) {
+                for (int j = Math.max(0, col - 1); j <= Math.min(col + 1, cols - 1); j++) {
+                    if (board.isRevealed(i, j)) {
+                        queue(i * cols + j, numbers);
+                    }
+                }
+            }
+        }
+        // a queued number may share a hidden cell with a cached component, which
+        // then has to be solved together with it
+        for (int k = 0; k < numbers.size(); k++) {
+            int row = numbers.get(k) / cols;
+            int col = numbers.get(k) - row * cols;
+            for (int i = Math.max(0, row - 1); i <= Math.min(row + 1, board.getRows() - 1); i++) {
+                for (int j = Math.max(0, col - 1); j <= Math.min(col + 1, cols - 1); j++) {
+                    if (componentOf[i * cols + j] >= 0) {
+                        drop(componentOf[i * cols + j], numbers);
+                    }
+                }
+            }
+        }
+        if (numbers.size() > 0) {
+            analyse(numbers);
+        } else if (hidden != hiddenBefore) {
+            // cells revealed away from every number still change the others
+            result = null;
+            version++;
+        }
+    }
+
+    /**
+     * The method returns the safe cells, the mines and the mine probabilities
+     * of the current state of the board. The safe cells and the mines take
+     * time in their number only, unless the mine count of the whole board
+     * decides cells, near the end of a game; the probabilities are combined
+     * over every component when first asked for.
+     * 
+     * @return the result, which stays valid until the next update
+     */
+    public Solver.Result getResult() {
+        if (result != null) {
+            return result;
+        }
+        // forget the cells no longer known, and collect the others
+        ChangeSet stillKnown = new ChangeSet();
+        ChangeSet safe = new ChangeSet();
+        ChangeSet mines = new ChangeSet();
+        for (int k = 0; k < knownCells.size(); k++) {
+            int cell = knownCells.get(k);
+            if (known[cell] == Solver.UNKNOWN) {
+                listed[cell >>> 6] &= ~(1L << cell);
+                continue;
+            }
+            stillKnown.add(cell);
+            (known[cell] == Solver.SAFE ? safe : mines).add(cell);
+        }
+        knownCells = stillKnown;
+        int minesLeft = board.getNumOfMines() - decidedMines;
+        // hidden cells away from the numbers, and in components counted like them
+        int other = hidden - decidedHidden - componentCells + inexactCells;
+        if (unsolvable > 0 || maxSum > minesLeft || minesLeft - minSum > other) {
+            // the mine count of the board limits the components
+            result = combine();
+            return result;
+        }
+        // every mine count of the components leaves a way to place the rest,
+        // so the other cells are safe only if the fewest mines are all of
+        // them, and mines only if the most mines leave one for each of them
+        boolean otherSafe = minSum == minesLeft;
+        boolean otherMines = other > 0 && maxSum == minesLeft - other;
+        if (inexactCells > 0 && (otherSafe || otherMines)) {
+            for (Solver.Component component : components) {
+                if (component != null && !component.exact) {
+                    for (int v : component.vars) {
+                        (otherSafe ? safe : mines).add(v);
+                    }
+                }
+            }
+        }
+        result = new Analysis(safe, mines, otherSafe, otherMines);
+        return result;
+    }
+
+    /**
+     * The method returns the number of cached components, for statistics.
+     * 
+     * @return the number of components of undecided cells
+     */
+    public int getComponentCount() {
+        return components.size() - freeSlots.size();
+    }
+
+    /**
+     * The method queues a revealed cell as a constraint of the current update
+     * if it is a number.
+     */
+    private void queue(int cell, ChangeSet numbers) {
+        int row = cell / cols;
+        int col = cell - row * cols;
+        if ((queued[cell >>> 6] & (1L << cell)) != 0 || board.hasMine(row, col)
+                || board.countAdjacentMines(row, col) == 0) {
+            return;
+        }
+        queued[cell >>> 6] |= 1L << cell;
+        numbers.add(cell);
+    }
+
+    /**
+     * The method drops a cached component and queues the numbers next to its
+     * cells, so that it is solved again with the current update.
+     */
+    private void drop(int slot, ChangeSet numbers) {
+        Solver.Component component = components.get(slot);
+        components.set(slot, null);
+        freeSlots.push(slot);
+        count(component, -1);
+        for (int v : component.vars) {
+            componentOf[v] = -1;
+            known[v] = Solver.UNKNOWN;
+        }
+        for (int v : component.vars) {
+            int row = v / cols;
+            int col = v - row * cols;
+            for (int i = Math.max(0, row - 1); i <= Math.min(row + 1, board.getRows() - 1); i++) {
+                for (int j = Math.max(0, col - 1); j <= Math.min(col + 1, cols - 1); j++) {
+                    if (board.isRevealed(i, j)) {
+                        queue(i * cols + j, numbers);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The method solves the queued numbers and caches the components found,
+     * with the cells each of them makes certain.
+     */
+    private void analyse(ChangeSet numbers) {
+        ChangeSet frontier = new ChangeSet();
+        List<Solver.Component> found = solver.analyse(board, numbers, decided, frontier);
+        for (int k = 0; k < numbers.size(); k++) {
+            queued[numbers.get(k) >>> 6] &= ~(1L << numbers.get(k));
+        }
+        for (int k = 0; k < frontier.size(); k++) {
+            int cell = frontier.get(k);
+            if (decided[cell] != Solver.UNKNOWN && known[cell] == Solver.UNKNOWN) {
+                decidedHidden++;
+                if (decided[cell] == Solver.MINE) {
+                    decidedMines++;
+                }
+                know(cell, decided[cell]);
+            }
+        }
+        for (Solver.Component component : found) {
+            int slot;
+            if (!freeSlots.isEmpty()) {
+                slot = freeSlots.pop();
+                components.set(slot, component);
+            } else {
+                slot = components.size();
+                components.add(component);
+            }
+            count(component, 1);
+            boolean solvable = !component.exact || component.minMines <= component.maxMines;
+            for (int c = 0; c < component.vars.length; c++) {
+                int v = component.vars[c];
+                componentOf[v] = slot;
+                byte certainty = component.certainty(c);
+                if (solvable && certainty != Solver.UNKNOWN) {
+                    know(v, certainty);
+                }
+            }
+        }
+        result = null;
+        version++;
+    }
+
+    /**
+     * The method adds a cached component to the sums over the components, or
+     * takes it out of them.
+     * 
+     * @param sign 1 to add the component, -1 to take it out
+     */
+    private void count(Solver.Component component, int sign) {
+        componentCells += sign * component.vars.length;
+        if (!component.exact) {
+            inexactCells += sign * component.vars.length;
+        } else if (component.minMines > component.maxMines) {
+            unsolvable += sign;
+        } else {
+            minSum += sign * component.minMines;
+            maxSum += sign * component.maxMines;
+        }
+    }
+
+    /**
+     * The method marks a hidden cell as known and lists it.
+     */
+    private void know(int cell, byte value) {
+        known[cell] = value;
+        if ((listed[cell >>> 6] & (1L << cell)) == 0) {
+            listed[cell >>> 6] |= 1L << cell;
+            knownCells.add(cell);
+        }
+    }
+
+    /**
+     * The method combines the decided cells and every cached component into a
+     * result with the probabilities of all hidden cells.
+     */
+    private Solver.Result combine() {
+        ChangeSet frontier = new ChangeSet();
+        for (int k = 0; k < knownCells.size(); k++) {
+            if (decided[knownCells.get(k)] != Solver.UNKNOWN) {
+                frontier.add(knownCells.get(k));
+            }
+        }
+        List<Solver.Component> live = new ArrayList<>();
+        for (Solver.Component component : components) {
+            if (component != null) {
+                live.add(component);
+                for (int v : component.vars) {
+                    frontier.add(v);
+                }
+            }
+        }
+        return Solver.result(cols, frontier, decided, live, hidden, board.getNumOfMines());
+    }
+
+    /**
+     * The Analysis class is the result of a state in which the mine count of
+     * the board decides nothing. Its safe cells and mines are known when it is
+     * built; its probabilities are combined when first asked for, which has
+     * to be before the frontier is updated again.
+     */
+    private class Analysis extends Solver.Result {
+        private ChangeSet safe;
+        private ChangeSet mines;
+        private boolean otherSafe;// no hidden cell away from the numbers has a mine
+        private boolean otherMines;// every hidden cell away from the numbers has a mine
+        private int version;// the version of the frontier the analysis is of
+        private Solver.Result combined;// the probabilities, null until asked for
+
+        Analysis(ChangeSet safe, ChangeSet mines, boolean otherSafe, boolean otherMines) {
+            this.safe = safe;
+            this.mines = mines;
+            this.otherSafe = otherSafe;
+            this.otherMines = otherMines;
+            this.version = Frontier.this.version;
+        }
+
+        @Override
+        public ChangeSet getSafeCells() {
+            return safe;
+        }
+
+        @Override
+        public ChangeSet getMines() {
+            return mines;
+        }
+
+        @Override
+        public double getProbability(int row, int col) {
+            if (combined != null) {
+                return combined.getProbability(row, col);
+            }
+            int cell = row * cols + col;
+            if (version == Frontier.this.version && known[cell] != Solver.UNKNOWN) {
+                return known[cell] == Solver.MINE ? 1 : 0;
+            }
+            return combined().getProbability(row, col);
+        }
+
+        @Override
+        public double getOtherProbability() {
+            return otherSafe ? 0 : otherMines ? 1 : combined().getOtherProbability();
+        }
+
+        @Override
+        public boolean isOtherSafe() {
+            return otherSafe;
+        }
+
+        @Override
+        void computeProbabilities() {
+            combined();
+        }
+
+        private Solver.Result combined() {
+            if (combined == null) {
+                if (version != Frontier.this.version) {
+                    throw new IllegalStateException("The frontier changed since the result was built");
+                }
+                combined = combine();
+            }
+            return combined;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package minesweeper;
+
+/**
+ * The GameEngine class holds the rules of a Minesweeper game on top of a
+ * `Board`: revealing, flagging and chording cells, counting clicks and
+ * deciding when the game is won or lost. It has no dependency on AWT or
+ * Swing, so games can be played from tests and tools without a display.
+ * 
+ * A game can be made first-click-safe: the mines are then placed again from
+ * the seed of the board when the first cell is revealed, keeping that cell and
+ * its neighbours free of mines.
+ * 
+ * Every move returns the cells it changed as a `ChangeSet`. The change set is
+ * owned by the engine and reused by the next move, so callers that need the
+ * cells later have to copy them.
+ * 
+ * For hints and probability overlays the engine keeps a `Frontier`, the
+ * analysis of the visible board, once getFrontier() is first called. Every
+ * following move updates it from the cells the move changed.
+ */
+public class GameEngine {
+    private Board board;
+    private GameStatus status;
+    private ChangeSet changes;// cells changed by the last move
+    private int clickCount;// number of clicks that revealed cells without a mine, chords included
+    private boolean firstClickSafe;// place the mines around the first click
+    private boolean started;// true once a cell has been revealed
+    private long seed;// seed of the mine placement of this game
+    private MoveJournal journal;// records every move, or null
+    private MoveHistory history;// moves that can be undone and redone, or null
+    private Frontier frontier;// analysis of the visible board, null until asked for
+
+    /**
+     * The GameEngine constructor creates a new game on a new board with the
+     * specified number of mines, rows and columns.
+     */
+    public GameEngine(int numOfMines, int rows, int cols) {
+        this(new Board(numOfMines, rows, cols));
+    }
+
+    /**
+     * The GameEngine constructor creates a new game on a new board whose mines
+     * are placed from a seed.
+     * 
+     * @param seed           the seed of the mine placement
+     * @param firstClickSafe true to keep the first revealed cell and its
+     *                       neighbours free of mines
+     */
+    public GameEngine(int numOfMines, int rows, int cols, long seed, boolean firstClickSafe) {
+        this(new Board(numOfMines, rows, cols, seed));
+        this.firstClickSafe = firstClickSafe;
+    }
+
+    /**
+     * The GameEngine constructor creates a new game on an existing board on
+     * which no cell is revealed yet.
+     * 
+     * @param board the board to play on
+     */
+    public GameEngine(Board board) {
+        this.board = board;
+        this.status = GameStatus.PLAYING;
+        this.changes = new ChangeSet();
+        this.clickCount = 0;
+        this.firstClickSafe = false;
+        this.started = false;
+        this.seed = board.getSeed();
+        this.history = new MoveHistory();
+    }
+
+    /**
+     * The GameEngine constructor resumes a saved game on a restored board, with
+     * the state the engine had when it was saved. The history starts empty.
+     * 
+     * @param board          the restored board
+     * @param clickCount     the clicks made so far
+     * @param status         the status of the game
+     * @param firstClickSafe true if the mines are placed around the first
+     *                       click
+     * @param started        true if a cell has been revealed
+     */
+    GameEngine(Board board, int clickCount, GameStatus status, boolean firstClickSafe, boolean started) {
+        this(board);
+        this.clickCount = clickCount;
+        this.status = status;
+        this.firstClickSafe = firstClickSafe;
+        this.started = started;
+    }
+
+    /**
+     * The method starts a new game on the same board, placing the mines again
+     * from a new seed. The bit planes of the board are reused, so nothing is
+     * allocated.
+     * 
+     * @param seed the seed of the new mine placement
+     */
+    public void restart(long seed) {
+        if (journal != null) {
+            journal.restart(seed);
+        }
+        reset(seed);
+        if (!firstClickSafe) {
+            // a first-click-safe game places its mines on the first click
+            board.setMines(board.getNumOfMines(), seed, -1, -1);
+        }
+        if (frontier != null) {
+            frontier.rebuild();
+        }
+    }
+
+    /**
+     * The method starts a new game whose mines are placed from a new seed
+     * around a start cell, and opens the start cell as part of the restart,
+     * as a no-guess game from a `BoardPool` begins. The cells it reveals are
+     * not a click, are not in the history, so no undo hides them or places
+     * the mines again, and the journal records them with the restart.
+     * 
+     * @param seed     the seed of the new mine placement
+     * @param startRow the row of the start cell
+     * @param startCol the column of the start cell
+     * @return the cells revealed by opening the start cell
+     */
+    public ChangeSet restart(long seed, int startRow, int startCol) {
+        if (journal != null) {
+            journal.restart(seed, startRow * board.getCols() + startCol);
+        }
+        reset(seed);
+        board.setMines(board.getNumOfMines(), seed, startRow, startCol);
+        started = true;
+        revealInto(startRow, startCol);
+        if (frontier != null) {
+            frontier.rebuild();
+        }
+        return changes;
+    }
+
+    /**
+     * The method clears the board and the state of the engine for a new game.
+     */
+    private void reset(long seed) {
+        board.reset();
+        this.seed = seed;
+        if (history != null) {
+            history.clear();
+        }
+        status = GameStatus.PLAYING;
+        changes.clear();
+        clickCount = 0;
+        started = false;
+    }
+
+    /**
+     * The method reveals a cell. A cell without adjacent mines reveals the
+     * region around it; a cell with a mine ends the game. Revealed and flagged
+     * cells are ignored, as is every move once the game is over.
+     * 
+     * @param row represents the row index of the cell
+     * @param col represents the column index of the cell
+     * @return the cells changed by the move
+     */
+    public ChangeSet reveal(int row, int col) {
+        if (journal != null) {
+            journal.record(MoveJournal.REVEAL, row * board.getCols() + col);
+        }
+        changes.clear();
+        if (status != GameStatus.PLAYING || board.isRevealed(row, col) || board.isFlagged(row, col)) {
+            return changes;
+        }
+        long before = state();
+        if (firstClickSafe && !started) {
+            board.setMines(board.getNumOfMines(), seed, row, col);
+        }
+        started = true;
+        if (!board.hasMine(row, col)) {
+            clickCount++;
+        }
+        revealInto(row, col);
+        record(false, before);
+        follow();
+        return changes;
+    }
+
+    /**
+     * The method places a flag on an unrevealed cell, or removes it if the cell
+     * is already flagged.
+     * 
+     * @param row represents the row index of the cell
+     * @param col represents the column index of the cell
+     * @return the cells changed by the move, the flagged cell or nothing
+     */
+    public ChangeSet toggleFlag(int row, int col) {
+        if (journal != null) {
+            journal.record(MoveJournal.FLAG, row * board.getCols() + col);
+        }
+        changes.clear();
+        if (status != GameStatus.PLAYING || board.isRevealed(row, col)) {
+            return changes;
+        }
+        long before = state();
+        board.setFlagged(row, col, !board.isFlagged(row, col));
+        changes.add(row * board.getCols() + col);
+        record(true, before);
+        return changes;
+    }
+
+    /**
+     * The method chords on a revealed number: if as many neighbours are flagged
+     * as the number says, every other unrevealed neighbour is revealed. A wrong
+     * flag makes this reveal a mine and lose the game. A chord that reveals
+     * cells without a mine counts as one click.
+     * 
+     * @param row represents the row index of the revealed cell
+     * @param col represents the column index of the revealed cell
+     * @return the cells changed by the move
+     */
+    public ChangeSet chord(int row, int col) {
+        if (journal != null) {
+            journal.record(MoveJournal.CHORD, row * board.getCols() + col);
+        }
+        changes.clear();
+        if (status != GameStatus.PLAYING || !board.isRevealed(row, col) || board.hasMine(row, col)) {
+            return changes;
+        }
+        int count = board.countAdjacentMines(row, col);
+        int flags = 0;
+        int rowEnd = Math.min(row + 1, board.getRows() - 1);
+        int colEnd = Math.min(col + 1, board.getCols() - 1);
+        for (int i = Math.max(0, row - 1); i <= rowEnd; i++) {
+            for (int j = Math.max(0, col - 1); j <= colEnd; j++) {
+                if (board.isFlagged(i, j)) {
+                    flags++;
+                }
+            }
+        }
+        if (count == 0 || flags != count) {
+            return changes;
+        }
+        long before = state();
+        for (int i = Math.max(0, row - 1); i <= rowEnd; i++) {
+            for (int j = Math.max(0, col - 1); j <= colEnd; j++) {
+                if (!board.isRevealed(i, j) && !board.isFlagged(i, j)) {
+                    revealInto(i, j);
+                }
+            }
+        }
+        if (changes.size() > 0) {
+            if (status != GameStatus.LOST) {
+                // a chord is one click, like a reveal
+                clickCount++;
+            }
+            record(false, before);
+            follow();
+        }
+        return changes;
+    }
+
+    /**
+     * The method takes back the last move, hiding the cells it revealed or
+     * toggling back the flag it placed, in time proportional to the cells it
+     * changed. A lost game can be undone, which makes it PLAYING again; a view
+     * that shows the mines after a loss has to hide them then, as
+     * `Minesweeper` does, or the solution stays on screen. The result a game
+     * is scored with does not change: it is the first one it ended with.
+     * 
+     * @return the cells changed back
+     */
+    public ChangeSet undo() {
+        changes.clear();
+        if (history != null && history.canUndo()) {
+            if (journal != null) {
+                journal.undo();
+            }
+            setState(history.undo(board, changes));
+            follow();
+        }
+        return changes;
+    }
+
+    /**
+     * The method plays the last undone move again.
+     * 
+     * @return the cells changed by the move
+     */
+    public ChangeSet redo() {
+        changes.clear();
+        if (history != null && history.canRedo()) {
+            if (journal != null) {
+                journal.redo();
+            }
+            setState(history.redo(board, changes));
+            follow();
+        }
+        return changes;
+    }
+
+    /**
+     * The method undoes or redoes moves until the given number of moves is
+     * applied. When the history restores a checkpoint the change set is empty
+     * and the whole board has to be redrawn.
+     * 
+     * @param step the number of moves to have applied, between 0 and
+     *             getHistory().size()
+     * @return the cells changed
+     */
+    public ChangeSet jumpTo(int step) {
+        changes.clear();
+        if (history == null) {
+            return changes;
+        }
+        if (journal != null) {
+            for (int k = history.getPosition(); k > step; k--) {
+                journal.undo();
+            }
+            for (int k = history.getPosition(); k < step; k++) {
+                journal.redo();
+            }
+        }
+        int from = history.getPosition();
+        long state = history.jumpTo(step, board, changes);
+        if (state >= 0) {
+            setState(state);
+        }
+        if (frontier != null && changes.size() == 0 && step != from) {
+            // a checkpoint was restored
+            frontier.rebuild();
+        } else {
+            follow();
+        }
+        return changes;
+    }
+
+    /**
+     * The method returns the history of the moves of the game.
+     * 
+     * @return the undo and redo history, or null if it is not kept
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * The method turns the undo and redo history on or off. Without it undo,
+     * redo and jumpTo change nothing and a move allocates nothing for the
+     * history, which keeps the memory of a long game constant, as servers
+     * need. Turning it off drops the moves recorded so far.
+     * 
+     * @param enabled true to record the moves, false to forget them
+     */
+    public void setHistoryEnabled(boolean enabled) {
+        if (!enabled) {
+            history = null;
+        } else if (history == null) {
+            history = new MoveHistory();
+        }
+    }
+
+    /**
+     * The method returns the analysis of the visible board, created on the
+     * first call and updated by every move after it. It is updated on the
+     * thread that makes the moves, so it must be read on that thread or
+     * between moves.
+     * 
+     * @return the frontier of the board
+     */
+    public Frontier getFrontier() {
+        if (frontier == null) {
+            frontier = new Frontier(board);
+        }
+        return frontier;
+    }
+
+    /**
+     * The method updates the frontier, if it is kept, with the cells changed
+     * by the current move.
+     */
+    private void follow() {
+        if (frontier != null && changes.size() > 0) {
+            frontier.update(changes);
+        }
+    }
+
+    /**
+     * The method records the current move in the history, if it is kept.
+     */
+    private void record(boolean flag, long before) {
+        if (history != null) {
+            history.record(flag, changes, before, state(), board);
+        }
+    }
+
+    /**
+     * The method packs the click count, whether the game started and the
+     * status into a long for the history.
+     */
+    private long state() {
+        return (long) clickCount << 3 | (started ? 4 : 0) | status.ordinal();
+    }
+
+    /**
+     * The method restores the click count, started flag and status packed by
+     * state().
+     */
+    private void setState(long state) {
+        clickCount = (int) (state >>> 3);
+        started = (state & 4) != 0;
+        status = GameStatus.values()[(int) (state & 3)];
+    }
+
+    /**
+     * The method reveals a cell into the current change set and updates the
+     * game status.
+     */
+    private void revealInto(int row, int col) {
+        board.reveal(row, col, changes);
+        if (board.hasMine(row, col)) {
+            status = GameStatus.LOST;
+        } else if (board.isCleared() && status == GameStatus.PLAYING) {
+            status = GameStatus.WON;
+        }
+        if (status != GameStatus.PLAYING && journal != null) {
+            journal.flush();
+        }
+    }
+
+    /**
+     * The method makes the engine record every following move, including
+     * moves that change nothing, in a journal, so replaying it gives the same
+     * game.
+     * 
+     * @param journal the journal to append to, or null to stop recording
+     */
+    public void setJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * The method returns the seed the mines of the current game are placed
+     * from.
+     * 
+     * @return the seed of the game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The method checks if a cell has been revealed in the current game. Until
+     * then a first-click-safe game has not placed its mines.
+     * 
+     * @return true once the first cell is revealed
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * The method checks if the mines are placed around the first click.
+     * 
+     * @return true if the game is first-click-safe
+     */
+    public boolean isFirstClickSafe() {
+        return firstClickSafe;
+    }
+
+    /**
+     * The method returns the status of the game.
+     * 
+     * @return PLAYING, WON or LOST
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * The method returns the board the game is played on.
+     * 
+     * @return the board of the game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * The method returns the number of clicks that revealed cells without a
+     * mine, reveals and chords alike.
+     * 
+     * @return the click count
+     */
+    public int getClickCount() {
+        return clickCount;
+    }
+
+    /**
+     * The method returns the efficiency of the clicks so far: the 3BV of the
+     * board, the fewest clicks that clear it without chords, divided by the
+     * click count, in which every chord is a click. A won game played without
+     * wasted clicks scores about 1. It only goes above 1 when a chord opens
+     * several openings or numbers at once, and never above 8, the most
+     * cells a chord reveals.
+     * 
+     * @return the efficiency, or 0 before the first click
+     */
+    public double getEfficiency() {
+        return clickCount == 0 ? 0 : (double) board.get3BV() / clickCount;
+    }
+
+    /**
+     * The method returns the number of revealed cells without a mine.
+     * 
+     * @return the number of revealed safe cells
+     */
+    public int getRevealedCells() {
+        return board.getRevealedCells();
+    }
+}
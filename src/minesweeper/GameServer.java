@@ -0,0 +1,344 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * The GameServer class hosts independent games for many TCP clients from one
+ * thread. It is built on a non-blocking NIO selector: every connection is a
+ * session with its own `GameEngine` and a pair of buffers, and a move costs a
+ * read, the move itself and a write of the cells it changed, so thousands of
+ * sessions fit in one JVM without a thread each. Sessions that send nothing
+ * for the idle timeout are closed.
+ * 
+ * The protocol is binary and big-endian. Every request is 13 bytes: a type
+ * byte and three ints.
+ * 
+ * <pre>
+ * NEW    rows, cols, mines   start a first-click-safe game
+ * REVEAL row, col, 0
+ * FLAG   row, col, 0         toggle a flag
+ * CHORD  row, col, 0
+ * </pre>
+ * 
+ * Every request gets one response: a status byte (PLAYING, WON, LOST or
+ * ERROR), an int n, and n ints, one per changed cell, holding
+ * `cell << 4 | tile` with the cell index `row * cols + col` and the tile as in
+ * `Assets`: the number of adjacent mines, TILE_HIDDEN, TILE_FLAG or TILE_MINE.
+ * Boards are limited to MAX_CELLS cells, so no move keeps the thread busy for
+ * long.
+ */
+public class GameServer implements Runnable {
+    public static final byte NEW = 1;
+    public static final byte REVEAL = 2;
+    public static final byte FLAG = 3;
+    public static final byte CHORD = 4;
+
+    public static final byte PLAYING = 0;
+    public static final byte WON = 1;
+    public static final byte LOST = 2;
+    public static final byte ERROR = 3;
+
+    public static final int REQUEST_SIZE = 13;
+    public static final int MAX_CELLS = 1 << 20;
+
+    private ServerSocketChannel server;
+    private Selector selector;
+    private long idleNanos;// sessions silent for longer are closed
+    private volatile boolean running;
+    private int sessions;// open sessions
+    private long moves;// moves played since the start
+
+    /**
+     * The Session class holds the game and the buffers of one connection.
+     */
+    private static class Session {
+        private GameEngine engine;
+        private ByteBuffer in = ByteBuffer.allocate(REQUEST_SIZE * 64);
+        private ByteBuffer out = ByteBuffer.allocate(1024);
+        private long lastActive;
+    }
+
+    /**
+     * The GameServer constructor opens the listening socket.
+     * 
+     * @param port        the port to listen on, 0 for any free port
+     * @param idleSeconds seconds after which a silent session is closed
+     * @throws IOException if the socket cannot be opened
+     */
+    public GameServer(int port, int idleSeconds) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.idleNanos = idleSeconds * 1_000_000_000L;
+        this.running = true;
+    }
+
+    /**
+     * The method returns the port the server listens on.
+     * 
+     * @return the local port
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * The method serves the clients until close() is called.
+     */
+    @Override
+    public void run() {
+        long lastSweep = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(1000);
+                long now = System.nanoTime();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept(now);
+                        } else {
+                            if (key.isReadable()) {
+                                read(key, now);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        closeSession(key);
+                    }
+                }
+                if (now - lastSweep > 1_000_000_000L) {
+                    closeIdle(now);
+                    lastSweep = now;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Game server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // closing anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    /**
+     * The method accepts the pending connections and opens a session for each.
+     */
+    private void accept(long now) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session();
+            session.lastActive = now;
+            channel.register(selector, SelectionKey.OP_READ, session);
+            sessions++;
+        }
+    }
+
+    /**
+     * The method reads what a client sent and answers every complete request.
+     */
+    private void read(SelectionKey key, long now) throws IOException {
+        Session session = (Session) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(session.in) < 0) {
+            closeSession(key);
+            return;
+        }
+        session.lastActive = now;
+        session.in.flip();
+        while (session.in.remaining() >= REQUEST_SIZE) {
+            handle(session, session.in.get(), session.in.getInt(), session.in.getInt(), session.in.getInt());
+        }
+        session.in.compact();
+        write(key);
+    }
+
+    /**
+     * The method plays one request on the game of a session and appends the
+     * response to its output buffer.
+     */
+    private void handle(Session session, byte type, int a, int b, int c) {
+        GameEngine engine = session.engine;
+        if (type == NEW) {
+            if (a <= 0 || b <= 0 || (long) a * b > MAX_CELLS || c < 0 || c >= a * b) {
+                respond(session, ERROR, null);
+                return;
+            }
+            if (engine != null && engine.getBoard().getRows() == a && engine.getBoard().getCols() == b
+                    && engine.getBoard().getNumOfMines() == c) {
+                // same size, reuse the board of the last game
+                engine.restart(System.nanoTime());
+            } else {
+                session.engine = new GameEngine(c, a, b, System.nanoTime(), true);
+                // the protocol has no undo, and a history would grow with every move
+                session.engine.setHistoryEnabled(false);
+            }
+            respond(session, PLAYING, null);
+            return;
+        }
+        if (engine == null || a < 0 || b < 0 || a >= engine.getBoard().getRows() || b >= engine.getBoard().getCols()) {
+            respond(session, ERROR, null);
+            return;
+        }
+        ChangeSet changes;
+        if (type == REVEAL) {
+            changes = engine.reveal(a, b);
+        } else if (type == FLAG) {
+            changes = engine.toggleFlag(a, b);
+        } else if (type == CHORD) {
+            changes = engine.chord(a, b);
+        } else {
+            respond(session, ERROR, null);
+            return;
+        }
+        if (changes.size() > 0) {
+            // moves on a finished game or on the wrong cells are answered but not counted
+            moves++;
+        }
+        GameStatus status = engine.getStatus();
+        respond(session, status == GameStatus.WON ? WON : status == GameStatus.LOST ? LOST : PLAYING, changes);
+    }
+
+    /**
+     * The method appends a response with the changed cells to the output buffer
+     * of a session, growing it if needed.
+     */
+    private void respond(Session session, byte status, ChangeSet changes) {
+        int n = changes == null ? 0 : changes.size();
+        if (session.out.remaining() < 5 + 4 * n) {
+            ByteBuffer bigger = ByteBuffer.allocate(
+                    Math.max(session.out.capacity() * 2, session.out.position() + 5 + 4 * n));
+            session.out.flip();
+            bigger.put(session.out);
+            session.out = bigger;
+        }
+        session.out.put(status);
+        session.out.putInt(n);
+        if (n == 0) {
+            return;
+        }
+        Board board = session.engine.getBoard();
+        int cols = board.getCols();
+        for (int k = 0; k < n; k++) {
+            int cell = changes.get(k);
+            int row = cell / cols;
+            int col = cell - row * cols;
+            int tile;
+            if (board.isFlagged(row, col)) {
+                tile = Assets.TILE_FLAG;
+            } else if (!board.isRevealed(row, col)) {
+                tile = Assets.TILE_HIDDEN;
+            } else if (board.hasMine(row, col)) {
+                tile = Assets.TILE_MINE;
+            } else {
+                tile = board.countAdjacentMines(row, col);
+            }
+            session.out.putInt(cell << 4 | tile);
+        }
+    }
+
+    /**
+     * The method sends as much of the output buffer as the socket takes, and
+     * waits for the socket to become writable again if something is left.
+     */
+    private void write(SelectionKey key) throws IOException {
+        Session session = (Session) key.attachment();
+        session.out.flip();
+        ((SocketChannel) key.channel()).write(session.out);
+        boolean pending = session.out.hasRemaining();
+        session.out.compact();
+        key.interestOps(pending ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * The method closes the sessions that sent nothing for the idle timeout.
+     */
+    private void closeIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Session && now - ((Session) key.attachment()).lastActive > idleNanos) {
+                closeSession(key);
+            }
+        }
+    }
+
+    /**
+     * The method closes the connection of a session.
+     */
+    private void closeSession(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // the session is gone either way
+        }
+        sessions--;
+    }
+
+    /**
+     * The method returns the number of open sessions. It is only exact when
+     * read from the server thread.
+     * 
+     * @return the number of sessions
+     */
+    public int getSessions() {
+        return sessions;
+    }
+
+    /**
+     * The method returns the number of moves played since the start that
+     * changed a board. It is only exact when read from the server thread.
+     * 
+     * @return the number of moves
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * The method stops the server; the thread running it closes every
+     * connection and returns.
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * The main function runs a server from the command line:
+     * `java GameServer [port] [idleSeconds]`.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int idle = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        GameServer server = new GameServer(port, idle);
+        System.out.println("Serving games on port " + server.getPort());
+        server.run();
+    }
+}
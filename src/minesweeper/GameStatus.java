@@ -0,0 +1,10 @@
+package minesweeper;
+
+/**
+ * The GameStatus enum describes the state of a game after a move.
+ */
+public enum GameStatus {
+    PLAYING, // the game is still running
+    WON, // every cell without a mine has been revealed
+    LOST // a mine has been revealed
+}
@@ -0,0 +1,192 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The JournalReplay class plays the moves of a `MoveJournal` again on a new
+ * `GameEngine` built from the header of the journal. The journal is memory
+ * mapped and read as ints, and every move goes through the engine like the
+ * original one, so a replay ends in exactly the state of the recorded game.
+ * 
+ * Seeking forward plays the moves in between; seeking backward restarts the
+ * game and plays from the beginning, which is fast enough since a replay
+ * runs millions of moves per second.
+ * 
+ * The engine of a replay keeps its undo history, unlike those of the
+ * `Simulator` and the `GameServer`: the UNDO and REDO records of the journal
+ * are played through it, and without it they would change nothing. That
+ * costs the deltas and checkpoints of every move replayed, which is the price
+ * of replaying undone moves exactly.
+ */
+public class JournalReplay {
+    private IntBuffer moves;// the ints following the header
+    private GameEngine engine;
+    private long firstSeed;// seed of the first game of the journal
+    private int moveCount;// number of moves in the journal
+    private int position;// number of moves played
+    private int cols;
+    private ChangeSet none;// returned by a restart, which the caller repaints whole
+
+    /**
+     * The JournalReplay constructor opens a journal and creates the game it
+     * was recorded on, positioned before the first move.
+     * 
+     * @param file the journal to replay
+     * @throws IOException if the file cannot be read, is not a journal, or
+     *                     has a damaged header or move
+     */
+    public JournalReplay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MoveJournal.HEADER_SIZE || (size & 3) != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a move journal");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MoveJournal.MAGIC) {
+                throw new IOException(file + " is not a move journal");
+            }
+            int version = buffer.getInt();
+            if (version < 1 || version > MoveJournal.VERSION) {
+                throw new IOException(file + " has unsupported journal version " + version);
+            }
+            int rows = buffer.getInt();
+            this.cols = buffer.getInt();
+            int mines = buffer.getInt();
+            int firstClickSafe = buffer.getInt();
+            this.firstSeed = buffer.getLong();
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > 1 << 29 || mines < 0
+                    || mines > (long) rows * cols || (firstClickSafe & ~1) != 0) {
+                throw new IOException(file + " has a damaged header");
+            }
+            this.moves = buffer.asIntBuffer();
+            try {
+                this.engine = new GameEngine(mines, rows, cols, firstSeed, firstClickSafe != 0);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + " has a damaged header", e);
+            }
+            // count the moves once so callers can seek over the whole journal,
+            // and check them, so a damaged journal fails here and not halfway
+            // through a replay
+            int cells = rows * cols;
+            while (moves.hasRemaining()) {
+                int move = moves.get();
+                if ((move & 3) != MoveJournal.RESTART) {
+                    if (move >>> 2 >= cells) {
+                        throw new IOException(file + " has a move outside the board at move " + moveCount);
+                    }
+                } else if (move == MoveJournal.RESTART || move == MoveJournal.START) {
+                    int payload = move == MoveJournal.START ? 3 : 2;
+                    if (moves.remaining() < payload) {
+                        throw new IOException(file + " is truncated at move " + moveCount);
+                    }
+                    moves.position(moves.position() + 2);
+                    if (move == MoveJournal.START && Integer.compareUnsigned(moves.get(), cells) >= 0) {
+                        throw new IOException(file + " has a start cell outside the board at move " + moveCount);
+                    }
+                } else if (move != MoveJournal.UNDO && move != MoveJournal.REDO) {
+                    throw new IOException(file + " has an unknown record at move " + moveCount);
+                }
+                moveCount++;
+            }
+            moves.rewind();
+        }
+        this.none = new ChangeSet();
+    }
+
+    /**
+     * The method plays the next move of the journal.
+     * 
+     * @return the cells changed by the move, owned by the engine, or nothing
+     *         for a restart, which changes the whole board
+     */
+    public ChangeSet step() {
+        int move = moves.get();
+        int cell = move >>> 2;
+        position++;
+        switch (move & 3) {
+            case MoveJournal.REVEAL:
+                return engine.reveal(cell / cols, cell % cols);
+            case MoveJournal.FLAG:
+                return engine.toggleFlag(cell / cols, cell % cols);
+            case MoveJournal.CHORD:
+                return engine.chord(cell / cols, cell % cols);
+            default:
+                if (move == MoveJournal.UNDO) {
+                    return engine.undo();
+                }
+                if (move == MoveJournal.REDO) {
+                    return engine.redo();
+                }
+                long seed = (long) moves.get() << 32 | (moves.get() & 0xffffffffL);
+                if (move == MoveJournal.START) {
+                    int start = moves.get();
+                    engine.restart(seed, start / cols, start % cols);
+                } else {
+                    engine.restart(seed);
+                }
+                return none;
+        }
+    }
+
+    /**
+     * The method plays or rewinds the journal to just after a given number of
+     * moves.
+     * 
+     * @param move the number of moves to have played, between 0 and
+     *             getMoveCount()
+     */
+    public void seek(int move) {
+        if (move < position) {
+            engine.restart(firstSeed);
+            moves.rewind();
+            position = 0;
+        }
+        while (position < move) {
+            step();
+        }
+    }
+
+    /**
+     * The method checks if every move of the journal has been played.
+     * 
+     * @return true at the end of the journal
+     */
+    public boolean isFinished() {
+        return position == moveCount;
+    }
+
+    /**
+     * The method returns the number of moves played so far.
+     * 
+     * @return the position in the journal
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * The method returns the number of moves in the journal, restarts
+     * included.
+     * 
+     * @return the length of the journal
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * The method returns the game the journal is replayed on.
+     * 
+     * @return the engine of the replay
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,218 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * The LoadGenerator class opens many simulated clients against a
+ * `GameServer` and reports the moves per second and the latency of the moves.
+ * All clients run on one selector thread. Every client plays first-click-safe
+ * games with random reveals: it sends a move, waits for the whole response,
+ * applies the changed cells to its own view of the board and sends the next
+ * move, starting a new game when one ends. The latency of a move is the time
+ * from sending the request to reading the last byte of the response.
+ */
+public class LoadGenerator {
+    private static final int MAX_MICROS = 1_000_000;// latencies above go to the last bucket
+
+    private String host;
+    private int port;
+    private int rows;
+    private int cols;
+    private int mines;
+    private long[] histogram;// number of moves per latency in microseconds
+    private long moves;
+
+    /**
+     * The Client class is one simulated player.
+     */
+    private class Client {
+        private SocketChannel channel;
+        private ByteBuffer out = ByteBuffer.allocate(GameServer.REQUEST_SIZE);
+        private ByteBuffer in = ByteBuffer.allocate(4096);
+        private boolean[] known = new boolean[rows * cols];// revealed or flagged cells
+        private long sent;// time the pending request was sent
+        private boolean move;// true if the pending request is a move
+
+        /**
+         * The method sends a request for a new game.
+         */
+        void newGame() throws IOException {
+            Arrays.fill(known, false);
+            send(GameServer.NEW, rows, cols, mines);
+            move = false;
+        }
+
+        /**
+         * The method reveals a random cell that is not known yet.
+         */
+        void nextMove(SplittableRandom random) throws IOException {
+            int cell = random.nextInt(known.length);
+            while (known[cell]) {
+                cell = cell + 1 == known.length ? 0 : cell + 1;
+            }
+            send(GameServer.REVEAL, cell / cols, cell % cols, 0);
+            move = true;
+        }
+
+        private void send(byte type, int a, int b, int c) throws IOException {
+            out.clear();
+            out.put(type).putInt(a).putInt(b).putInt(c).flip();
+            sent = System.nanoTime();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+
+        /**
+         * The method reads what arrived and, once the response is complete,
+         * records it and returns its status, or -1 while it is incomplete.
+         */
+        int receive() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            if (in.position() < 5 || in.position() < 5 + 4 * in.getInt(1)) {
+                if (in.position() >= 5 && in.capacity() < 5 + 4 * in.getInt(1)) {
+                    ByteBuffer bigger = ByteBuffer.allocate(5 + 4 * in.getInt(1));
+                    in.flip();
+                    bigger.put(in);
+                    in = bigger;
+                }
+                return -1;
+            }
+            long now = System.nanoTime();
+            if (move) {
+                histogram[(int) Math.min(MAX_MICROS, (now - sent) / 1000)]++;
+                moves++;
+            }
+            in.flip();
+            int status = in.get();
+            int n = in.getInt();
+            for (int k = 0; k < n; k++) {
+                int value = in.getInt();
+                known[value >>> 4] = (value & 15) != Assets.TILE_HIDDEN;
+            }
+            in.clear();
+            return status;
+        }
+    }
+
+    /**
+     * The LoadGenerator constructor sets up a run against a server.
+     * 
+     * @param host  the host of the server
+     * @param port  the port of the server
+     * @param rows  the number of rows of the games played
+     * @param cols  the number of columns of the games played
+     * @param mines the number of mines of the games played
+     */
+    public LoadGenerator(String host, int port, int rows, int cols, int mines) {
+        this.host = host;
+        this.port = port;
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+    }
+
+    /**
+     * The method connects the clients, lets them play for a while and prints
+     * the moves per second and the latency percentiles.
+     * 
+     * @param clients the number of simulated clients
+     * @param seconds how long to play
+     * @throws IOException if a client cannot connect or loses its connection
+     */
+    public void run(int clients, int seconds) throws IOException {
+        histogram = new long[MAX_MICROS + 1];
+        moves = 0;
+        SplittableRandom random = new SplittableRandom();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client();
+                client.channel = SocketChannel.open(new InetSocketAddress(host, port));
+                client.channel.socket().setTcpNoDelay(true);
+                client.channel.configureBlocking(false);
+                client.channel.register(selector, SelectionKey.OP_READ, client);
+            }
+            for (SelectionKey key : selector.keys()) {
+                ((Client) key.attachment()).newGame();
+            }
+
+            long start = System.nanoTime();
+            long end = start + seconds * 1_000_000_000L;
+            while (System.nanoTime() < end) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    int status = client.receive();
+                    if (status == GameServer.PLAYING) {
+                        client.nextMove(random);
+                    } else if (status >= 0) {
+                        client.newGame();
+                    }
+                }
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            System.out.printf("%d clients, %d moves in %.1f s: %.0f moves/s, p50 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+                    clients, moves, elapsed, moves / elapsed, percentile(0.5), percentile(0.99), percentile(0.999),
+                    percentile(1));
+        }
+    }
+
+    /**
+     * The method returns the latency in microseconds below which the given
+     * fraction of the moves fall.
+     */
+    private long percentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * moves);
+        long seen = 0;
+        for (int us = 0; us < histogram.length; us++) {
+            seen += histogram[us];
+            if (seen >= rank && seen > 0) {
+                return us;
+            }
+        }
+        return MAX_MICROS;
+    }
+
+    /**
+     * The main function runs a load test from the command line:
+     * `java LoadGenerator host port clients seconds [rows cols mines]`. With
+     * the host `local` a server is started in this JVM on a free port.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int clients = Integer.parseInt(args[2]);
+        int seconds = Integer.parseInt(args[3]);
+        int rows = args.length > 6 ? Integer.parseInt(args[4]) : 16;
+        int cols = args.length > 6 ? Integer.parseInt(args[5]) : 30;
+        int mines = args.length > 6 ? Integer.parseInt(args[6]) : 99;
+        GameServer server = null;
+        if (host.equals("local")) {
+            server = new GameServer(port, 60);
+            Thread thread = new Thread(server, "game-server");
+            thread.start();
+            host = "localhost";
+            port = server.getPort();
+        }
+        new LoadGenerator(host, port, rows, cols, mines).run(clients, seconds);
+        if (server != null) {
+            server.close();
+        }
+    }
+}
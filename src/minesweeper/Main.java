@@ -0,0 +1,92 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+
+/**
+ * The Main class initializes the Minesweeper game using
+ * SwingUtilities.invokeLater().
+ */
+public class Main {
+    /**
+     * The main function creates a new instance of the Minesweeper game, or
+     * resumes a saved one with `--load file`. `--journal file` records the
+     * moves of the game and `--replay file` plays a recorded journal back.
+     * `--text [rows cols mines]` plays in the terminal, see TextGame.
+     * `--no-guess [rows cols mines]` plays boards that can be cleared by logic
+     * alone, from a BoardPool filled in the background. `--endless [density]`
+     * plays on a field without edges, see EndlessGame.
+     */
+    public static void main(String[] args) throws IOException {
+        // checked first, the text game must not load any of AWT
+        if (args.length > 0 && args[0].equals("--text")) {
+            TextGame.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // decode the board images while Swing starts up
+        Assets.preload("tile.png", "flag.png", "mine.png", "redmine.png", "clock.png");
+        if (Metrics.ENABLED) {
+            SwingUtilities.invokeLater(EdtMonitor::install);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Metrics.dump(System.out)));
+        }
+        if (args.length == 2 && args[0].equals("--load")) {
+            GameEngine engine = BoardSnapshot.load(Paths.get(args[1]));
+            SwingUtilities.invokeLater(() -> {
+                new Minesweeper(engine);
+            });
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--no-guess")) {
+            int rows = args.length >= 4 ? Integer.parseInt(args[1]) : Minesweeper.DEFAULT_ROWS;
+            int cols = args.length >= 4 ? Integer.parseInt(args[2]) : Minesweeper.DEFAULT_COLS;
+            int mines = args.length >= 4 ? Integer.parseInt(args[3]) : Minesweeper.DEFAULT_MINES;
+            BoardPool pool = new BoardPool(4);
+            pool.register(rows, cols, mines);
+            // the window takes the first board from the pool once a worker has it
+            GameEngine engine = new GameEngine(mines, rows, cols, 0, true);
+            SwingUtilities.invokeLater(() -> {
+                new Minesweeper(engine, pool);
+            });
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--endless")) {
+            double density = args.length >= 2 ? Double.parseDouble(args[1]) : EndlessGame.DEFAULT_DENSITY;
+            SwingUtilities.invokeLater(() -> {
+                new EndlessGame(density);
+            });
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--replay")) {
+            JournalReplay replay = new JournalReplay(Paths.get(args[1]));
+            SwingUtilities.invokeLater(() -> {
+                new ReplayFrame(replay);
+            });
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--journal")) {
+            GameEngine engine = new GameEngine(Minesweeper.DEFAULT_MINES, Minesweeper.DEFAULT_ROWS,
+                    Minesweeper.DEFAULT_COLS, new Random().nextLong(), true);
+            MoveJournal journal = new MoveJournal(Paths.get(args[1]), engine);
+            engine.setJournal(journal);
+            // the program ends with System.exit when the player quits, so the
+            // journal is closed on the way out
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Could not write the journal: " + e.getMessage());
+                }
+            }));
+            SwingUtilities.invokeLater(() -> {
+                new Minesweeper(engine);
+            });
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            new Minesweeper();
+        });
+    }
+}
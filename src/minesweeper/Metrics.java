@@ -0,0 +1,188 @@
+package minesweeper;
+
+import java.io.PrintStream;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Metrics class is the registry of the measurements taken on the hot
+ * paths of the game: a latency histogram per operation, the number of cells
+ * of every flood fill, and the time the Swing event dispatch thread spends on
+ * each event (see EdtMonitor). Every measurement is also emitted as a JFR
+ * event, so a flight recording shows the stutters next to GC and compilation.
+ * 
+ * Metrics are off unless the JVM runs with `-Dminesweeper.metrics=true`. The
+ * switch is a static final field, so when it is off the JIT removes the
+ * measurements and the only cost left is an unused local.
+ * 
+ * An operation is measured as
+ * 
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * Metrics.record(Metrics.REVEAL, start, cells);
+ * </pre>
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+
+    public static final int BUTTON_CLICK = 0;
+    public static final int REVEAL = 1;
+    public static final int SHOW_MINES = 2;
+    public static final int CHECK_GAME = 3;
+    public static final int GENERATE = 4;
+    public static final int EDT_EVENT = 5;
+    public static final int RESTART = 6;
+
+    private static final String[] NAMES = { "buttonClick", "reveal", "showMines", "checkGame", "generate",
+            "edtEvent", "restart" };
+    private static final Histogram[] LATENCIES = new Histogram[NAMES.length];// nanoseconds
+    private static final Histogram FLOOD_CELLS = new Histogram();// cells revealed per reveal
+
+    static {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i] = new Histogram();
+        }
+    }
+
+    /**
+     * The OperationEvent class is the JFR event of one measured operation.
+     */
+    @Name("minesweeper.Operation")
+    @Label("Operation")
+    @Category("Minesweeper")
+    @Description("An operation on the hot path of the game")
+    static class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Time")
+        @Timespan
+        long time;
+
+        @Label("Cells")
+        int cells;
+    }
+
+    /**
+     * The EdtStallEvent class is the JFR event of an event that kept the event
+     * dispatch thread busy for longer than EdtMonitor.STALL_MILLIS.
+     */
+    @Name("minesweeper.EdtStall")
+    @Label("EDT Stall")
+    @Category("Minesweeper")
+    @Description("An AWT event that blocked the event dispatch thread")
+    static class EdtStallEvent extends Event {
+        @Label("Event")
+        String event;
+
+        @Label("Time")
+        @Timespan
+        long time;
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * The method returns the start time of an operation to pass to record().
+     * 
+     * @return the current time in nanoseconds, or 0 if metrics are off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * The method records the latency of an operation.
+     * 
+     * @param operation one of the operation constants
+     * @param start     the value returned by start()
+     */
+    public static void record(int operation, long start) {
+        record(operation, start, 0);
+    }
+
+    /**
+     * The method records the latency of an operation and the number of cells
+     * it changed. The cells of a REVEAL are also counted as a flood fill size.
+     * 
+     * @param operation one of the operation constants
+     * @param start     the value returned by start()
+     * @param cells     the number of cells the operation changed
+     */
+    public static void record(int operation, long start, int cells) {
+        if (!ENABLED) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        LATENCIES[operation].record(duration);
+        if (operation == REVEAL) {
+            FLOOD_CELLS.record(cells);
+        }
+        OperationEvent event = new OperationEvent();
+        if (event.shouldCommit()) {
+            event.operation = NAMES[operation];
+            event.time = duration;
+            event.cells = cells;
+            event.commit();
+        }
+    }
+
+    /**
+     * The method records an event that blocked the event dispatch thread.
+     * 
+     * @param event    the class of the AWT event
+     * @param duration the time spent dispatching it, in nanoseconds
+     */
+    static void recordStall(String event, long duration) {
+        EdtStallEvent stall = new EdtStallEvent();
+        if (stall.shouldCommit()) {
+            stall.event = event;
+            stall.time = duration;
+            stall.commit();
+        }
+    }
+
+    /**
+     * The method returns the latency histogram of an operation.
+     * 
+     * @param operation one of the operation constants
+     * @return the histogram, in nanoseconds
+     */
+    public static Histogram getLatency(int operation) {
+        return LATENCIES[operation];
+    }
+
+    /**
+     * The method returns the histogram of the number of cells revealed by a
+     * reveal.
+     * 
+     * @return the flood fill size histogram
+     */
+    public static Histogram getFloodCells() {
+        return FLOOD_CELLS;
+    }
+
+    /**
+     * The method prints every histogram: the count, mean, median, p99 and
+     * maximum, latencies in microseconds.
+     * 
+     * @param out the stream to print to
+     */
+    public static void dump(PrintStream out) {
+        out.printf("%-12s %10s %10s %10s %10s %10s%n", "operation", "count", "mean", "p50", "p99", "max");
+        for (int i = 0; i < NAMES.length; i++) {
+            Histogram h = LATENCIES[i];
+            out.printf("%-12s %10d %10.1f %10.1f %10.1f %10.1f%n", NAMES[i], h.getCount(), h.getMean() / 1e3,
+                    h.getPercentile(0.5) / 1e3, h.getPercentile(0.99) / 1e3, h.getMax() / 1e3);
+        }
+        out.printf("%-12s %10d %10.1f %10d %10d %10d  (cells)%n", "floodFill", FLOOD_CELLS.getCount(),
+                FLOOD_CELLS.getMean(), FLOOD_CELLS.getPercentile(0.5), FLOOD_CELLS.getPercentile(0.99),
+                FLOOD_CELLS.getMax());
+    }
+}
@@ -0,0 +1,574 @@
+package minesweeper;
+
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ExecutionException;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.UIManager;
+
+/**
+ * The Minesweeper class creates a Minesweeper game GUI with functionality for
+ * playing the
+ * game, placing flags, and checking game status.
+ * 
+ * Reveals and chords run on a background worker, so a flood fill over a large
+ * board does not freeze the window. The cells a move changed are then shown a
+ * frame of FRAME_CELLS cells at a time, each frame a separate event, and the
+ * board ignores input until the whole move is shown.
+ * 
+ * A new game is played in the same window: the engine places the mines of the
+ * next game in the bit planes of the same board, and the view and its tiles
+ * are kept, so starting over allocates next to nothing.
+ */
+public class Minesweeper extends JFrame {
+    public static final int DEFAULT_ROWS = 8;
+    public static final int DEFAULT_COLS = 8;
+    public static final int DEFAULT_MINES = 10;
+    public static final int FRAME_CELLS = 1 << 16;// cells shown per event after a move
+    private static final String[] GAME_END_OPTIONS = { "New game", "Quit" };
+
+    private GameEngine engine;// the rules of the game
+    private Board board;
+    private BoardView view;// paints the board
+    private JLabel minesLabel;// to show number of mines
+    public JLabel clickLabel;// to show number of clicks
+    private boolean busy;// true while a move is computed or shown
+    private BoardPool pool;// supplies the boards of a no-guess game, or null
+    private long startMillis;// time of the first click of the game, 0 before it
+    private boolean recorded;// true once the result of the game is in the StatsStore
+    private boolean hintsShown;// true while the mine probabilities are shown, toggled with Ctrl+H
+    private Solver.Result nextHints;// the hints of the move being shown
+
+    public int rows;// number of rows
+    public int cols;// number of columns
+    public static int mine_count;// number of mines
+
+    /**
+     * Minesweeper constructor initializes the attributes and performs the game
+     */
+    public Minesweeper() {
+        this(DEFAULT_ROWS, DEFAULT_COLS, DEFAULT_MINES);
+    }
+
+    /**
+     * Minesweeper constructor initializes the attributes and performs the game on
+     * a board of the given size. Boards that do not fit on the screen are shown
+     * in a scrollable viewport.
+     * 
+     * @param rows       the number of rows of the board
+     * @param cols       the number of columns of the board
+     * @param mine_count the number of mines on the board
+     */
+    public Minesweeper(int rows, int cols, int mine_count) {
+        this(new GameEngine(mine_count, rows, cols, new Random().nextLong(), true));
+    }
+
+    /**
+     * Minesweeper constructor performs the game of an existing engine, such as
+     * one resumed from a saved board. Ctrl+N starts a new game, Ctrl+S saves
+     * the board to a file, Ctrl+Z undoes a move and Ctrl+Y redoes it. Ctrl+H
+     * shows or hides the mine probabilities of the hidden cells. Ctrl+M
+     * prints the metrics when they are enabled.
+     * 
+     * @param engine the game to play
+     */
+    public Minesweeper(GameEngine engine) {
+        this(engine, null);
+    }
+
+    /**
+     * Minesweeper constructor performs the game of an existing engine and
+     * takes the boards of the following games from a pool of no-guess boards,
+     * if one is given.
+     * 
+     * @param engine the game to play
+     * @param pool   the pool of no-guess boards, or null for random boards; with
+     *               a pool the first game is taken from it too, and the board
+     *               ignores clicks until it is ready
+     */
+    public Minesweeper(GameEngine engine, BoardPool pool) {
+        this.engine = engine;
+        this.pool = pool;
+        this.board = engine.getBoard();
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        Minesweeper.mine_count = board.getNumOfMines();
+
+        // the end-game animations are only needed later, load them meanwhile
+        Assets.preload("sad.gif", "congrats.gif");
+
+        this.setTitle("Minesweeper");
+        this.setLocation(430, 50);
+        this.setResizable(false);
+
+        // cells are 60 pixels wide on the default board and shrink on bigger
+        // boards, down to 24 pixels
+        int cellSize = Math.max(24, Math.min(60, 480 / Math.max(rows, cols)));
+        this.view = new BoardView(board, cellSize, new BoardView.CellListener() {
+            /**
+             * When a cell is clicked, the game engine reveals it, and once
+             * the move is shown the game checks for a game-winning condition.
+             * 
+             * @param row the row index of the clicked cell
+             * @param col the column index of the clicked cell
+             */
+            @Override
+            public void cellClicked(int row, int col) {
+
+                buttonClick(row, col);
+            }
+
+            /**
+             * When a cell is right-clicked, the game engine toggles its flag.
+             * 
+             * @param row the row index of the clicked cell
+             * @param col the column index of the clicked cell
+             */
+            @Override
+            public void cellRightClicked(int row, int col) {
+                if (busy) {
+                    return;
+                }
+                // place a flag, or remove it if the cell is already flagged
+                view.repaintCells(engine.toggleFlag(row, col));
+                minesLabel.setText(Integer.toString(board.getRemainingMines()));
+            }
+        });
+        if (engine.getStatus() == GameStatus.LOST) {
+            // a game saved after it was lost is resumed with its mines shown,
+            // the revealed ones red
+            ChangeSet exploded = new ChangeSet();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (board.hasMine(i, j) && board.isRevealed(i, j)) {
+                        exploded.add(i * cols + j);
+                    }
+                }
+            }
+            view.showMines(exploded);
+        }
+        // a game resumed after it ended was recorded when it ended
+        this.recorded = engine.getStatus() != GameStatus.PLAYING;
+        JScrollPane gameBoard = new JScrollPane(view);
+        gameBoard.setBorder(null);
+
+        // create the click panel and label
+        JPanel clickPanel = new JPanel(new BorderLayout());
+        clickPanel.setLayout(new BorderLayout(10, 0));
+        this.clickLabel = new JLabel(Integer.toString(engine.getClickCount()), SwingConstants.CENTER);
+
+        JLabel imageClick = new JLabel("", SwingConstants.CENTER);
+        imageClick.setIcon(Assets.getIcon("clock.png"));
+
+        clickLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
+        clickPanel.add(imageClick, BorderLayout.WEST);
+        clickPanel.add(clickLabel, BorderLayout.CENTER);
+
+        // create mine panel and label
+        JPanel minePanel = new JPanel();
+        minePanel.setLayout(new BorderLayout(10, 0));
+        this.minesLabel = new JLabel(Integer.toString(board.getRemainingMines()), SwingConstants.CENTER);
+
+        JLabel imageMine = new JLabel(Assets.getIcon("mine.png"), SwingConstants.CENTER);
+
+        minesLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
+        minePanel.add(minesLabel, BorderLayout.WEST);
+        minePanel.add(imageMine, BorderLayout.CENTER);
+
+        // add click panel and mine panel
+        JPanel p = new JPanel();
+        p.setLayout(new BorderLayout(0, 20));
+        p.add(clickPanel, BorderLayout.WEST);
+        p.add(minePanel, BorderLayout.EAST);
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new BorderLayout(0, 10));
+        panel.add(gameBoard, BorderLayout.CENTER);
+        panel.add(p, BorderLayout.SOUTH);
+
+        this.add(panel, BorderLayout.CENTER);
+
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_N, InputEvent.CTRL_DOWN_MASK), "newGame");
+        panel.getActionMap().put("newGame", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!busy) {
+                    newGame();
+                }
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK), "save");
+        panel.getActionMap().put("save", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!busy) {
+                    save();
+                }
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_M, InputEvent.CTRL_DOWN_MASK), "metrics");
+        panel.getActionMap().put("metrics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Metrics.dump(System.out);
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo");
+        panel.getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!busy) {
+                    busy = true;
+                    ChangeSet changes = engine.undo();
+                    nextHints = analyse();
+                    showMove(changes, 0);
+                }
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo");
+        panel.getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!busy) {
+                    busy = true;
+                    ChangeSet changes = engine.redo();
+                    nextHints = analyse();
+                    showMove(changes, 0);
+                }
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_H, InputEvent.CTRL_DOWN_MASK), "hints");
+        panel.getActionMap().put("hints", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!busy) {
+                    hintsShown = !hintsShown;
+                    view.setHints(analyse());
+                }
+            }
+        });
+        if (pool != null) {
+            // the first game is taken from the pool too, once a board is ready
+            newGame();
+        }
+        this.pack();
+        this.setVisible(true);
+        this.setDefaultCloseOperation(EXIT_ON_CLOSE);
+
+        // show instructions before the game begins
+        String message = "Welcome to Minesweeper!\n\n"
+                + "You are a mine detector and your task is to"
+                + " find the land mines in the field.\nThe field is a two-dimensional board of squares\n"
+                + "containing either mines, or the number of mines next to the square. The objective is\n"
+                + "to clear every square that doesn't contain a mine using logical reasoning based\n"
+                + "on the number squares you have cleared.\nIf you click a square that has a mine game ends.\n"
+                + "If the square has a number of mines adjacent to it greater than 0, the number is revealed.\n"
+                + "If the square has zero mines next to it, the game clears all the nearby squares, since all\n"
+                + "squares next to a '0' would be safe.\n\n"
+                + "How to play:\n"
+                + "- Left-click to reveal a cell.\n"
+                + "- Right-click to place or remove a flag.\n Note: You can use flags to mark a square you think is a mine\n\n"
+                + "GOOD LUCK!";
+        JOptionPane.showMessageDialog(this, message, "Instructions", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * The buttonClick mehtod hands a click on a cell to the game engine and
+     * updates the GUI: a click on a hidden cell reveals it, a click on a revealed
+     * number chords on it. The move runs on a background worker and is shown
+     * once it is done. The click label shows the click count, and the game
+     * ends if a mine was revealed
+     * 
+     * @param row The row parameter represents the row index of the cell that was
+     *            clicked on the game
+     *            board
+     * @param col The `col` parameter represents the column index of the cell that
+     *            was clicked in the
+     *            game board
+     */
+    public void buttonClick(int row, int col) {
+        if (busy) {
+            return;
+        }
+        busy = true;
+        if (startMillis == 0) {
+            startMillis = System.currentTimeMillis();
+        }
+        long start = Metrics.start();
+        // a click on a revealed number chords, any other click reveals
+        boolean chord = board.isRevealed(row, col);
+        new SwingWorker<ChangeSet, Void>() {
+            @Override
+            protected ChangeSet doInBackground() {
+                // the engine is only touched here until done() runs, the view
+                // keeps painting the cells it has shown so far
+                ChangeSet changes = chord ? engine.chord(row, col) : engine.reveal(row, col);
+                nextHints = analyse();
+                return changes;
+            }
+
+            @Override
+            protected void done() {
+                ChangeSet changes;
+                try {
+                    changes = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    busy = false;
+                    throw new IllegalStateException("The move failed", e.getCause());
+                }
+                Metrics.record(Metrics.BUTTON_CLICK, start, changes.size());
+                showMove(changes, 0);
+            }
+        }.execute();
+    }
+
+    /**
+     * The method updates the GUI after a move, an undo or a redo. The changed
+     * cells are shown FRAME_CELLS at a time, and the rest is posted as a new
+     * event so painting and input are handled in between. After the last
+     * frame the labels show the click count and the remaining mines, and the
+     * game ends if a mine was revealed or every safe cell is. The mines shown
+     * after a loss are hidden again when an undo takes the game back to
+     * PLAYING. The hints, if shown, are replaced with those of the move.
+     * 
+     * @param changes the cells changed by the move
+     * @param from    the first change not shown yet
+     */
+    private void showMove(ChangeSet changes, int from) {
+        int to = Math.min(changes.size(), from + FRAME_CELLS);
+        view.apply(changes, from, to);
+        if (to < changes.size()) {
+            SwingUtilities.invokeLater(() -> showMove(changes, to));
+            return;
+        }
+        busy = false;
+        view.setHints(nextHints);
+        nextHints = null;
+        clickLabel.setText(" " + engine.getClickCount());
+        minesLabel.setText(Integer.toString(board.getRemainingMines()));
+
+        // show the solution and execute gameOver if a tile
+        // with a mine is clicked
+        if (engine.getStatus() == GameStatus.LOST) {
+            view.showMines(changes);
+            gameOver();
+            return;
+        }
+        if (engine.getStatus() == GameStatus.PLAYING && view.isShowingMines()) {
+            // the losing move was undone, play on without the solution
+            view.hideMines();
+        }
+        checkGame();
+    }
+
+    /**
+     * The method returns the analysis of the board for the hints, with its
+     * probabilities computed so the view can read it on the event dispatch
+     * thread, or null if the hints are hidden or the game is over. The engine
+     * keeps the frontier up to date from the first call on, so a move costs
+     * its update and the combination of the probabilities. It runs wherever
+     * the engine is used: on the worker of a click, or on the event dispatch
+     * thread between moves.
+     */
+    private Solver.Result analyse() {
+        if (!hintsShown || engine.getStatus() != GameStatus.PLAYING) {
+            return null;
+        }
+        Solver.Result result = engine.getFrontier().getResult();
+        result.computeProbabilities();
+        return result;
+    }
+
+    /**
+     * The method asks for a file and saves the game to it, see BoardSnapshot.
+     * The game can be resumed with `Main --load file`.
+     */
+    private void save() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            BoardSnapshot.save(engine, chooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not save the game:\n" + e.getMessage(), "Save",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * The method starts a new game in the same window. The board is cleared
+     * and gets its new mines on the first click, and the view shows it from
+     * scratch; the frame, the view and the tiles are reused. The time it
+     * takes is recorded as RESTART.
+     * 
+     * A no-guess game takes its board from the pool and starts with the start
+     * region open. The seed is waited for on a background worker while the
+     * board ignores input, so the window never waits for the generator; the
+     * game on screen is kept until the seed is there. If no board of the size
+     * can be generated, a dialog says so and random boards are played from
+     * then on.
+     */
+    public void newGame() {
+        if (pool == null) {
+            long start = Metrics.start();
+            engine.restart(ThreadLocalRandom.current().nextLong());
+            started(start);
+            return;
+        }
+        busy = true;
+        setTitle("Minesweeper - generating a board");
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws InterruptedException {
+                return pool.takeSeed(rows, cols, mine_count);
+            }
+
+            @Override
+            protected void done() {
+                busy = false;
+                setTitle("Minesweeper");
+                long seed;
+                try {
+                    seed = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(Minesweeper.this,
+                            "No board of this size that can be cleared without guessing was found:\n"
+                                    + cause.getMessage() + "\nRandom boards are played instead.",
+                            "New game", JOptionPane.ERROR_MESSAGE);
+                    pool.shutdown();
+                    pool = null;
+                    newGame();
+                    return;
+                }
+                long start = Metrics.start();
+                engine.restart(seed, BoardPool.startRow(rows), BoardPool.startCol(cols));
+                started(start);
+            }
+        }.execute();
+    }
+
+    /**
+     * The method shows the game the engine was just restarted with.
+     * 
+     * @param start the time the restart began, see Metrics.start()
+     */
+    private void started(long start) {
+        view.hideMines();
+        view.syncAll();
+        view.setHints(analyse());
+        startMillis = 0;
+        recorded = false;
+        clickLabel.setText(" " + engine.getClickCount());
+        minesLabel.setText(Integer.toString(board.getRemainingMines()));
+        Metrics.record(Metrics.RESTART, start);
+    }
+
+    /**
+     * The `gameOver` method displays a message dialog indicating that the game is
+     * over, showing the
+     * player's score and an image, and then starts a new game or exits the
+     * program, as the player chooses. Closing the dialog leaves the board on
+     * screen; Ctrl+N starts the next game.
+     */
+    private void gameOver() {
+        recordResult();
+        UIManager.put("OptionPane.messageFont", new Font("Arial", Font.BOLD, 20)); // Adjust the font size here
+        int choice = JOptionPane.showOptionDialog(this,
+                "Game Over! You hit a mine.\n Your score was: " + engine.getClickCount() + "\nCheck the board for the solution!",
+                "Game Over", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE, Assets.getIcon("sad.gif"), GAME_END_OPTIONS, GAME_END_OPTIONS[0]);
+        endGame(choice);
+    }
+
+    /**
+     * The method acts on the choice made in the dialog at the end of a game.
+     * 
+     * @param choice the index of the chosen option of GAME_END_OPTIONS, or
+     *               JOptionPane.CLOSED_OPTION
+     */
+    private void endGame(int choice) {
+        if (choice == 0) {
+            newGame();
+        } else if (choice == 1) {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * The method appends the result of the game to the StatsStore named by
+     * `-Dminesweeper.stats`, if any. Only the first result of a game is
+     * recorded: a loss that is undone and then won stays a loss, since the
+     * mines were on screen, and a win that is undone stays a win.
+     */
+    private void recordResult() {
+        StatsStore store = StatsStore.shared();
+        if (store == null || recorded) {
+            return;
+        }
+        recorded = true;
+        try {
+            store.record(StatsStore.PLAYED, engine, System.currentTimeMillis() - startMillis);
+        } catch (IOException e) {
+            System.err.println("Could not record the game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The method checks if all non-mine cells on the board are revealed to
+     * determine if the game is
+     * finished. The board keeps count of its revealed cells, so this takes
+     * constant time.
+     * 
+     * @return returns a boolean value indicating whether the game is finished
+     *         or not
+     */
+    public boolean isFinished() {
+        return board.isCleared();
+    }
+
+    /**
+     * The `checkGame` method displays a message with the player's score if the
+     * game is finished, and then starts a new game or exits the program.
+     */
+    private void checkGame() {
+        long start = Metrics.start();
+        boolean won = engine.getStatus() == GameStatus.WON;
+        Metrics.record(Metrics.CHECK_GAME, start);
+        if (won) {
+            recordResult();
+            UIManager.put("OptionPane.messageFont", new Font("Arial", Font.BOLD, 20));
+            int choice = JOptionPane.showOptionDialog(this,
+                    "Congratulations! You won!\n Your score was: " + engine.getClickCount() + "\n 3BV: "
+                            + board.get3BV() + ", efficiency: " + Math.round(100 * engine.getEfficiency()) + "%",
+                    "Won!!",
+                    JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, Assets.getIcon("congrats.gif"),
+                    GAME_END_OPTIONS, GAME_END_OPTIONS[0]);
+            endGame(choice);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The MoveHistory class keeps the moves of a game for undo and redo. A move is
+ * stored as its delta: the cells it changed, appended to one int array, plus
+ * the state of the game before and after it packed into a long. Undoing or
+ * redoing a move touches only the cells it changed, and the memory grows with
+ * the number of changed cells, not with the size of the board.
+ * 
+ * To bound the cost of jumping to a far away step, a checkpoint holding the
+ * revealed and flagged planes is taken whenever the deltas recorded since the
+ * last one add up to several times the size of a checkpoint. Checkpoints thus
+ * never take more than a fraction of the memory of the deltas, and a jump
+ * restores the nearest checkpoint when that is cheaper than walking the
+ * deltas.
+ * 
+ * The game state is packed as `clicks << 3 | started << 2 | status`, see
+ * GameEngine.
+ */
+public class MoveHistory {
+    private static final int CHECKPOINT_RATIO = 4;// delta words per checkpoint word
+
+    private int[] cells;// the changed cells of all moves, one move after the other
+    private int[] starts;// index in cells of the first cell of each move, plus the end
+    private boolean[] flags;// true if the move toggled flags, else it revealed cells
+    private long[] before;// packed game state before each move
+    private long[] after;// packed game state after each move
+    private int size;// number of recorded moves
+    private int position;// number of moves currently applied
+    private int[] checkpointSteps;// step after which each checkpoint was taken
+    private ArrayList<long[]> checkpoints;// revealed and flagged planes
+    private int sinceCheckpoint;// delta cells recorded since the last checkpoint
+    private ChangeSet replayed;// cells redone after restoring a checkpoint
+
+    /**
+     * The MoveHistory constructor creates an empty history.
+     */
+    public MoveHistory() {
+        this.cells = new int[64];
+        this.starts = new int[17];
+        this.flags = new boolean[16];
+        this.before = new long[16];
+        this.after = new long[16];
+        this.checkpointSteps = new int[4];
+        this.checkpoints = new ArrayList<>();
+        this.replayed = new ChangeSet();
+    }
+
+    /**
+     * The method forgets every move, for a new game.
+     */
+    public void clear() {
+        size = 0;
+        position = 0;
+        checkpoints.clear();
+        sinceCheckpoint = 0;
+    }
+
+    /**
+     * The method records a move that was just played, dropping the moves that
+     * were undone before it.
+     * 
+     * @param flag    true if the move toggled flags, false if it revealed
+     *                cells
+     * @param changes the cells changed by the move
+     * @param before  the packed game state before the move
+     * @param after   the packed game state after the move
+     * @param board   the board, to take a checkpoint from
+     */
+    public void record(boolean flag, ChangeSet changes, long before, long after, Board board) {
+        size = position;
+        while (!checkpoints.isEmpty() && checkpointSteps[checkpoints.size() - 1] > size) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        if (size == flags.length) {
+            int capacity = size * 2;
+            flags = Arrays.copyOf(flags, capacity);
+            this.before = Arrays.copyOf(this.before, capacity);
+            this.after = Arrays.copyOf(this.after, capacity);
+            starts = Arrays.copyOf(starts, capacity + 1);
+        }
+        int start = starts[size];
+        if (start + changes.size() > cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(cells.length * 2, start + changes.size()));
+        }
+        for (int k = 0; k < changes.size(); k++) {
+            cells[start + k] = changes.get(k);
+        }
+        flags[size] = flag;
+        this.before[size] = before;
+        this.after[size] = after;
+        starts[size + 1] = start + changes.size();
+        size++;
+        position = size;
+
+        sinceCheckpoint += changes.size();
+        if (sinceCheckpoint >= CHECKPOINT_RATIO * 2 * board.planeLength()) {
+            long[] state = new long[2 * board.planeLength()];
+            board.saveState(state);
+            if (checkpoints.size() == checkpointSteps.length) {
+                checkpointSteps = Arrays.copyOf(checkpointSteps, checkpointSteps.length * 2);
+            }
+            checkpointSteps[checkpoints.size()] = size;
+            checkpoints.add(state);
+            sinceCheckpoint = 0;
+        }
+    }
+
+    /**
+     * The method takes back the last applied move.
+     * 
+     * @param board   the board to change
+     * @param changes the change set the restored cells are appended to
+     * @return the packed game state before the move
+     */
+    public long undo(Board board, ChangeSet changes) {
+        position--;
+        apply(position, false, board, changes);
+        return before[position];
+    }
+
+    /**
+     * The method plays the next undone move again.
+     * 
+     * @param board   the board to change
+     * @param changes the change set the changed cells are appended to
+     * @return the packed game state after the move
+     */
+    public long redo(Board board, ChangeSet changes) {
+        apply(position, true, board, changes);
+        return after[position++];
+    }
+
+    /**
+     * The method undoes or redoes the moves needed to get to a step, restoring
+     * the nearest checkpoint first when that is cheaper. After a checkpoint is
+     * restored the change set is left empty, since the whole board may have
+     * changed.
+     * 
+     * @param step    the number of moves to have applied, between 0 and size()
+     * @param board   the board to change
+     * @param changes the change set the changed cells are appended to
+     * @return the packed game state at the step, or -1 at step 0 if nothing
+     *         was ever recorded
+     */
+    public long jumpTo(int step, Board board, ChangeSet changes) {
+        int walk = Math.abs(starts[step] - starts[position]);
+        int c = checkpoints.size() - 1;
+        while (c >= 0 && checkpointSteps[c] > step) {
+            c--;
+        }
+        if (c >= 0 && 2 * board.planeLength() + starts[step] - starts[checkpointSteps[c]] < walk) {
+            board.restoreState(checkpoints.get(c));
+            position = checkpointSteps[c];
+            changes.clear();
+            replayed.clear();
+            while (position < step) {
+                redo(board, replayed);
+            }
+        }
+        while (position > step) {
+            undo(board, changes);
+        }
+        while (position < step) {
+            redo(board, changes);
+        }
+        if (step > 0) {
+            return after[step - 1];
+        }
+        return size > 0 ? before[0] : -1;
+    }
+
+    /**
+     * The method applies or reverts the cells of one move.
+     */
+    private void apply(int move, boolean forward, Board board, ChangeSet changes) {
+        int cols = board.getCols();
+        for (int k = starts[move]; k < starts[move + 1]; k++) {
+            int row = cells[k] / cols;
+            int col = cells[k] - row * cols;
+            if (flags[move]) {
+                board.setFlagged(row, col, !board.isFlagged(row, col));
+            } else {
+                board.setRevealed(row, col, forward);
+            }
+            changes.add(cells[k]);
+        }
+    }
+
+    /**
+     * The method checks if there is a move to undo.
+     * 
+     * @return true if a move can be undone
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * The method checks if there is an undone move to redo.
+     * 
+     * @return true if a move can be redone
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * The method returns the number of moves currently applied.
+     * 
+     * @return the current step
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * The method returns the number of recorded moves, undone ones included.
+     * 
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,234 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The MoveJournal class appends every move of a `GameEngine` to a binary file,
+ * so a game can be audited and replayed with `JournalReplay`.
+ * 
+ * The file starts with a header describing the game, followed by one int per
+ * move, little-endian: the cell index `row * cols + col` shifted left by two,
+ * with the kind of move in the two low bits. The kind RESTART marks a control
+ * record instead, whose upper bits tell a restart, an undo or a redo apart. A
+ * restart is followed by two more ints, the high and low half of the new
+ * seed; a restart that opens a start cell, as a no-guess game does, by those
+ * two and the index of the start cell. Boards are limited to 2^29 cells so a cell index fits.
+ * 
+ * Header, 32 bytes:
+ * 
+ * <pre>
+ *  0  int   magic "MSJ1"
+ *  4  int   format version
+ *  8  int   rows
+ * 12  int   columns
+ * 16  int   mines
+ * 20  int   1 if the game is first-click-safe, else 0
+ * 24  long  seed
+ * </pre>
+ * 
+ * Recording a move only stores an int in an array. Full arrays of 4096 moves
+ * are handed to a background thread that writes them to the file, so the
+ * thread playing the game never waits for the disk. The engine flushes the
+ * partial array when a game ends, and close() writes whatever is left.
+ */
+public class MoveJournal implements Closeable {
+    public static final int REVEAL = 0;
+    public static final int FLAG = 1;
+    public static final int CHORD = 2;
+    public static final int RESTART = 3;
+    static final int UNDO = 1 << 2 | RESTART;// control record of an undo
+    static final int REDO = 2 << 2 | RESTART;// control record of a redo
+    static final int START = 3 << 2 | RESTART;// control record of a restart that opens a start cell
+
+    static final int MAGIC = 0x4d534a31;// "MSJ1"
+    static final int VERSION = 3;// 2 added undo and redo, 3 restarts on a start cell
+    static final int HEADER_SIZE = 32;
+    private static final int BATCH = 4096;// moves handed to the writer at once
+    private static final int[] END = new int[0];// tells the writer to stop
+
+    private FileChannel channel;
+    private LinkedBlockingQueue<int[]> full;// batches waiting to be written
+    private ArrayBlockingQueue<int[]> free;// written batches to reuse
+    private int[] batch;// moves not yet handed to the writer
+    private int size;
+    private Thread writer;
+    private volatile IOException failure;// first error of the writer
+    private boolean closed;
+
+    /**
+     * The MoveJournal constructor creates a journal file for the current game
+     * of an engine and starts the writer thread. The engine still has to be
+     * told to record into it with setJournal().
+     * 
+     * @param file   the file to write, replaced if it exists
+     * @param engine the game whose moves are recorded
+     * @throws IOException if the file cannot be created
+     */
+    public MoveJournal(Path file, GameEngine engine) throws IOException {
+        Board board = engine.getBoard();
+        if ((long) board.getRows() * board.getCols() > 1 << 29) {
+            throw new IllegalArgumentException("Board too large for a journal");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(board.getRows());
+        header.putInt(board.getCols());
+        header.putInt(board.getNumOfMines());
+        header.putInt(engine.isFirstClickSafe() ? 1 : 0);
+        header.putLong(engine.getSeed());
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        this.full = new LinkedBlockingQueue<>();
+        this.free = new ArrayBlockingQueue<>(4);
+        this.batch = new int[BATCH];
+        this.writer = new Thread(this::write, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The method records a move.
+     * 
+     * @param kind REVEAL, FLAG or CHORD
+     * @param cell the index `row * cols + col` of the cell
+     */
+    public void record(int kind, int cell) {
+        append(cell << 2 | kind);
+    }
+
+    /**
+     * The method records a restart of the game with a new seed.
+     * 
+     * @param seed the seed of the new game
+     */
+    public void restart(long seed) {
+        append(RESTART);
+        append((int) (seed >>> 32));
+        append((int) seed);
+    }
+
+    /**
+     * The method records a restart of the game with a new seed whose mines
+     * are placed around a start cell, which the restart opens.
+     * 
+     * @param seed the seed of the new game
+     * @param cell the index `row * cols + col` of the start cell
+     */
+    public void restart(long seed, int cell) {
+        append(START);
+        append((int) (seed >>> 32));
+        append((int) seed);
+        append(cell);
+    }
+
+    /**
+     * The method records an undo of the last move.
+     */
+    public void undo() {
+        append(UNDO);
+    }
+
+    /**
+     * The method records a redo of the last undone move.
+     */
+    public void redo() {
+        append(REDO);
+    }
+
+    /**
+     * The method stores one int of the journal, handing the batch to the
+     * writer when it is full.
+     */
+    private void append(int value) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        batch[size++] = value;
+        if (size == BATCH) {
+            full.add(batch);
+            int[] next = free.poll();
+            batch = next != null ? next : new int[BATCH];
+            size = 0;
+        }
+    }
+
+    /**
+     * The method hands the moves recorded so far to the writer without waiting
+     * for them to be written.
+     */
+    public void flush() {
+        if (size > 0) {
+            full.add(Arrays.copyOf(batch, size));
+            size = 0;
+        }
+    }
+
+    /**
+     * The method writes the batches handed over until close() is called. It
+     * runs on the writer thread.
+     */
+    private void write() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH * 4).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (true) {
+                int[] moves = full.take();
+                if (moves == END) {
+                    return;
+                }
+                buffer.clear();
+                buffer.asIntBuffer().put(moves);
+                buffer.limit(moves.length * 4);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (moves.length == BATCH) {
+                    free.offer(moves);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The method writes the remaining moves, stops the writer and closes the
+     * file.
+     * 
+     * @throws IOException if a move could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        full.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * The NoGuessGenerator class generates boards that can be cleared by logic
+ * alone from a given first click. Candidate boards are placed from random
+ * seeds and played by the `Solver`, revealing every cell it proves safe, until
+ * the board is cleared or the solver gets stuck; boards that would force a
+ * guess are thrown away. A board is described by its seed and first click, so
+ * an accepted board can be stored as a single long.
+ * 
+ * At high densities almost no board can be cleared without guessing, so the
+ * number of candidates tried for one board is bounded.
+ */
+public class NoGuessGenerator {
+    public static final int DEFAULT_ATTEMPTS = 10000;// candidates tried per board by default
+
+    private Solver solver;
+    private int maxAttempts;// candidates tried before generate() gives up
+
+    /**
+     * The NoGuessGenerator constructor creates a generator with its own solver
+     * that tries up to DEFAULT_ATTEMPTS candidates per board.
+     */
+    public NoGuessGenerator() {
+        this(DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * The NoGuessGenerator constructor creates a generator with its own solver.
+     * 
+     * @param maxAttempts the number of candidates tried per board before
+     *                    giving up
+     */
+    public NoGuessGenerator(int maxAttempts) {
+        this.solver = new Solver();
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * The method generates a board that can be cleared without guessing and
+     * returns its seed. Place the mines with
+     * `setMines(mines, seed, startRow, startCol)` and reveal the start cell to
+     * play it.
+     * 
+     * @param rows     the number of rows of the board
+     * @param cols     the number of columns of the board
+     * @param mines    the number of mines on the board
+     * @param startRow the row of the first click
+     * @param startCol the column of the first click
+     * @param random   the source of the candidate seeds
+     * @return the seed of the generated board
+     * @throws IllegalStateException if none of the candidates can be cleared
+     *                               without guessing, as happens when the
+     *                               board has too many mines
+     */
+    public long generate(int rows, int cols, int mines, int startRow, int startCol, SplittableRandom random) {
+        Board board = new Board(0, rows, cols, 0);
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long seed = random.nextLong();
+            board.setMines(mines, seed, startRow, startCol);
+            if (isSolvable(board, startRow, startCol)) {
+                return seed;
+            }
+        }
+        throw new IllegalStateException("No board of " + rows + "x" + cols + " with " + mines
+                + " mines that can be cleared without guessing was found in " + maxAttempts + " attempts");
+    }
+
+    /**
+     * The method checks if a board can be cleared by logic alone from the start
+     * cell. The board is reset afterwards.
+     * 
+     * @param board    the board to check, with nothing revealed
+     * @param startRow the row of the first click
+     * @param startCol the column of the first click
+     * @return true if the solver clears the board without guessing
+     */
+    public boolean isSolvable(Board board, int startRow, int startCol) {
+        ChangeSet changes = new ChangeSet();
+        board.reveal(startRow, startCol, changes);
+        boolean solvable = !board.hasMine(startRow, startCol);
+        // the frontier only solves again what the cells revealed since touched
+        Frontier frontier = new Frontier(board, solver);
+        boolean othersRevealed = false;
+        while (solvable && !board.isCleared()) {
+            int before = board.getRevealedCells();
+            frontier.update(changes);
+            changes.clear();
+            Solver.Result result = frontier.getResult();
+            ChangeSet safe = result.getSafeCells();
+            for (int k = 0; k < safe.size(); k++) {
+                int cell = safe.get(k);
+                board.reveal(cell / board.getCols(), cell % board.getCols(), changes);
+            }
+            if (result.isOtherSafe() && !othersRevealed) {
+                // every mine is on the frontier, so all other hidden cells are
+                // safe; once they are revealed every hidden cell is next to a
+                // number, so the board is scanned for them only once
+                revealOthers(board, result, changes);
+                othersRevealed = true;
+            }
+            // no progress means the next move would be a guess
+            solvable = board.getRevealedCells() > before;
+        }
+        board.reset();
+        return solvable;
+    }
+
+    /**
+     * The method reveals every hidden cell that the solver did not find to be a
+     * mine.
+     */
+    private static void revealOthers(Board board, Solver.Result result, ChangeSet changes) {
+        for (int r = 0; r < board.getRows(); r++) {
+            for (int c = 0; c < board.getCols(); c++) {
+                if (!board.isRevealed(r, c) && result.getProbability(r, c) == 0) {
+                    board.reveal(r, c, changes);
+                }
+            }
+        }
+    }
+}
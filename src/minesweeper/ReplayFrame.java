@@ -0,0 +1,151 @@
+package minesweeper;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
+
+/**
+ * The ReplayFrame class plays a journal back on screen. A Swing timer plays
+ * the moves at the speed chosen in the spinner, in moves per second, and the
+ * slider shows the position in the journal and seeks when dragged. The board
+ * cannot be clicked.
+ */
+public class ReplayFrame extends JFrame {
+    private static final int TICK = 15;// milliseconds between two timer ticks
+
+    private JournalReplay replay;
+    private BoardView view;
+    private JSlider slider;
+    private JSpinner speed;// moves per second
+    private JButton play;
+    private JLabel status;
+    private Timer timer;
+    private double due;// moves owed to the timer, carried between ticks
+    private boolean updating;// true while the slider follows the replay
+
+    /**
+     * The ReplayFrame constructor creates the playback window of a replay and
+     * shows it, paused at the start.
+     * 
+     * @param replay the replay to play back
+     */
+    public ReplayFrame(JournalReplay replay) {
+        this.replay = replay;
+        Board board = replay.getEngine().getBoard();
+        this.setTitle("Minesweeper replay");
+
+        int cellSize = Math.max(24, Math.min(60, 480 / Math.max(board.getRows(), board.getCols())));
+        this.view = new BoardView(board, cellSize, new BoardView.CellListener() {
+            @Override
+            public void cellClicked(int row, int col) {
+            }
+
+            @Override
+            public void cellRightClicked(int row, int col) {
+            }
+        });
+        JScrollPane scroll = new JScrollPane(view);
+        scroll.setBorder(null);
+
+        this.slider = new JSlider(0, replay.getMoveCount(), 0);
+        slider.addChangeListener(e -> {
+            if (!updating) {
+                seek(slider.getValue());
+            }
+        });
+        this.speed = new JSpinner(new SpinnerNumberModel(10, 1, 1_000_000, 10));
+        this.play = new JButton("Play");
+        play.addActionListener(e -> setPlaying(!timer.isRunning()));
+        this.status = new JLabel();
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(play);
+        controls.add(new JLabel("moves/s"));
+        controls.add(speed);
+        controls.add(status);
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(slider, BorderLayout.NORTH);
+        south.add(controls, BorderLayout.SOUTH);
+
+        this.add(scroll, BorderLayout.CENTER);
+        this.add(south, BorderLayout.SOUTH);
+        this.timer = new Timer(TICK, e -> tick());
+
+        update(new ChangeSet());
+        this.pack();
+        this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        this.setVisible(true);
+    }
+
+    /**
+     * The method starts or pauses the playback.
+     */
+    private void setPlaying(boolean playing) {
+        if (playing && !replay.isFinished()) {
+            due = 0;
+            timer.start();
+            play.setText("Pause");
+        } else {
+            timer.stop();
+            play.setText("Play");
+        }
+    }
+
+    /**
+     * The method plays the moves due since the last tick. At high speeds a
+     * tick plays many moves and only the last one is drawn.
+     */
+    private void tick() {
+        due += ((Number) speed.getValue()).doubleValue() * TICK / 1000;
+        ChangeSet changes = null;
+        while (due >= 1 && !replay.isFinished()) {
+            changes = replay.step();
+            due--;
+            if (replay.getEngine().getStatus() == GameStatus.LOST) {
+                break;
+            }
+        }
+        if (changes != null) {
+            update(changes);
+        }
+        if (replay.isFinished()) {
+            setPlaying(false);
+        }
+    }
+
+    /**
+     * The method moves the replay to a position and redraws the board.
+     */
+    private void seek(int move) {
+        replay.seek(move);
+        update(new ChangeSet());
+    }
+
+    /**
+     * The method redraws the board and the controls after moves were played.
+     * 
+     * @param changes the cells changed by the last move
+     */
+    private void update(ChangeSet changes) {
+        // a tick or a seek plays many moves, so the view reads back every cell
+        view.syncAll();
+        if (replay.getEngine().getStatus() == GameStatus.LOST) {
+            view.showMines(changes);
+        } else {
+            view.hideMines();
+        }
+        updating = true;
+        slider.setValue(replay.getPosition());
+        updating = false;
+        status.setText(replay.getPosition() + " / " + replay.getMoveCount() + "  "
+                + replay.getEngine().getStatus());
+    }
+}
@@ -0,0 +1,256 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The Simulator class plays large numbers of headless games of one board
+ * configuration with a `Strategy` and aggregates the results. The games are
+ * split into batches that run on a fork-join pool; every batch plays all its
+ * games on one `GameEngine`, restarting it with a new seed per game, so no
+ * objects are kept per game and the only shared state is a few counters.
+ * 
+ * Game i of a run uses a seed derived from the seed of the run and i, so a run
+ * with the same seed plays the same boards.
+ */
+public class Simulator {
+    private static final int BATCH = 256;// games played by one task
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private Strategy strategy;
+    private long seed;
+    private LongAdder games;
+    private LongAdder wins;
+    private LongAdder moves;
+    private LongAdder bbbv;// sum of the 3BV of the boards played
+    private StatsStore store;// receives the result of every game, or null
+
+    /**
+     * The Stats class is a snapshot of the aggregated results of a run.
+     */
+    public static class Stats {
+        private long games;
+        private long wins;
+        private long moves;
+        private long bbbv;
+        private double seconds;
+
+        /**
+         * The method returns the number of finished games.
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * The method returns the fraction of the finished games that were won.
+         */
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        /**
+         * The method returns the average number of moves, reveals that changed
+         * the board, per game.
+         */
+        public double getMovesPerGame() {
+            return games == 0 ? 0 : (double) moves / games;
+        }
+
+        /**
+         * The method returns the average 3BV, the fewest clicks that clear the
+         * board, of the boards played, a measure of how hard they were.
+         */
+        public double get3BVPerGame() {
+            return games == 0 ? 0 : (double) bbbv / games;
+        }
+
+        /**
+         * The method returns the number of games finished per second.
+         */
+        public double getGamesPerSecond() {
+            return seconds == 0 ? 0 : games / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %.2f%% won, %.1f moves/game, %.1f 3BV/game, %.0f games/s", games,
+                    100 * getWinRate(), getMovesPerGame(), get3BVPerGame(), getGamesPerSecond());
+        }
+    }
+
+    /**
+     * The Simulator constructor creates a simulator for first-click-safe games
+     * of one board configuration.
+     * 
+     * @param rows     the number of rows of the board
+     * @param cols     the number of columns of the board
+     * @param mines    the number of mines on the board
+     * @param strategy the strategy that plays the games
+     * @param seed     the seed the seeds of the games are derived from
+     */
+    public Simulator(int rows, int cols, int mines, Strategy strategy, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.strategy = strategy;
+        this.seed = seed;
+    }
+
+    /**
+     * The method sets a store the result of every game is appended to, as
+     * SIMULATED.
+     * 
+     * @param store the store, or null to keep no results
+     */
+    public void setStore(StatsStore store) {
+        this.store = store;
+    }
+
+    /**
+     * The method plays a number of games on a pool and returns the aggregated
+     * results. While the games run, a snapshot of the results so far is handed
+     * to the listener at the given interval.
+     * 
+     * @param count          the number of games to play
+     * @param pool           the pool the games run on
+     * @param reportInterval milliseconds between two snapshots
+     * @param listener       receives the snapshots, or null
+     * @return the results of all games
+     */
+    public Stats run(long count, ForkJoinPool pool, long reportInterval, Consumer<Stats> listener) {
+        games = new LongAdder();
+        wins = new LongAdder();
+        moves = new LongAdder();
+        bbbv = new LongAdder();
+        long start = System.nanoTime();
+        Batch all = new Batch(0, count);
+        pool.execute(all);
+        while (!all.isDone()) {
+            try {
+                all.get(reportInterval, TimeUnit.MILLISECONDS);
+            } catch (java.util.concurrent.TimeoutException e) {
+                if (listener != null) {
+                    listener.accept(snapshot(start));
+                }
+            } catch (InterruptedException e) {
+                all.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return snapshot(start);
+    }
+
+    /**
+     * The method reads the counters into a new snapshot.
+     */
+    private Stats snapshot(long start) {
+        Stats stats = new Stats();
+        stats.games = games.sum();
+        stats.wins = wins.sum();
+        stats.moves = moves.sum();
+        stats.bbbv = bbbv.sum();
+        stats.seconds = (System.nanoTime() - start) / 1e9;
+        return stats;
+    }
+
+    /**
+     * The Batch class plays the games in a range of game numbers, splitting the
+     * range until it is at most BATCH games long.
+     */
+    private class Batch extends RecursiveAction {
+        private long from;
+        private long to;
+
+        Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new Batch(from, middle), new Batch(middle, to));
+                return;
+            }
+            GameEngine engine = new GameEngine(mines, rows, cols, seed, true);
+            // simulated games are never undone, so they record no history
+            engine.setHistoryEnabled(false);
+            Board board = engine.getBoard();
+            SplittableRandom random = new SplittableRandom(mix(seed ^ from));
+            ChangeSet next = new ChangeSet();
+            long won = 0;
+            long moved = 0;
+            long value = 0;
+            for (long game = from; game < to; game++) {
+                engine.restart(mix(seed + game));
+                long start = store != null ? System.nanoTime() : 0;
+                while (engine.getStatus() == GameStatus.PLAYING) {
+                    next.clear();
+                    strategy.nextMoves(board, random, next);
+                    for (int k = 0; k < next.size() && engine.getStatus() == GameStatus.PLAYING; k++) {
+                        int cell = next.get(k);
+                        if (engine.reveal(cell / cols, cell % cols).size() > 0) {
+                            moved++;
+                        }
+                    }
+                }
+                if (engine.getStatus() == GameStatus.WON) {
+                    won++;
+                }
+                // the mines are placed on the first click, so the board is known now
+                value += board.get3BV();
+                if (store != null) {
+                    try {
+                        store.record(StatsStore.SIMULATED, engine, (System.nanoTime() - start) / 1_000_000);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            wins.add(won);
+            moves.add(moved);
+            bbbv.add(value);
+            games.add(to - from);
+        }
+    }
+
+    /**
+     * The method scrambles a number into a well spread seed (the finalizer of
+     * SplitMix64).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The main function runs a simulation from the command line:
+     * `java Simulator rows cols mines games [random|solver]`, printing the
+     * results every second. With `-Dminesweeper.stats=file` every game is
+     * also kept in that StatsStore.
+     */
+    public static void main(String[] args) {
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int mines = Integer.parseInt(args[2]);
+        long count = Long.parseLong(args[3]);
+        Strategy strategy = args.length > 4 && args[4].equals("random") ? Strategy.random() : Strategy.solver();
+        Simulator simulator = new Simulator(rows, cols, mines, strategy, System.nanoTime());
+        simulator.setStore(StatsStore.shared());
+        Stats stats = simulator.run(count, ForkJoinPool.commonPool(), 1000, System.out::println);
+        System.out.println(stats);
+    }
+}
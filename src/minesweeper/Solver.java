@@ -0,0 +1,954 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Solver class works out what the visible state of a `Board` says about
+ * the hidden cells: which cells are certainly safe, which certainly hold a
+ * mine, and how likely every other hidden cell is to hold a mine. Only revealed
+ * cells, their counts and the total number of mines are used; flags are
+ * treated like any other hidden cell because they may be wrong.
+ * 
+ * Every revealed number next to hidden cells is a constraint: its hidden
+ * neighbours hold exactly that many mines. The solver first applies the single
+ * constraint rules (no mines left, or as many mines as hidden cells) and the
+ * subset rule (if one constraint's cells are a subset of another's, the
+ * difference holds the difference of the counts) until nothing changes. The
+ * cells still undecided are split into independent components, cells that
+ * share no constraint, and every component is enumerated on its own on a
+ * fork-join pool. The solutions are combined with the number of ways to
+ * place the remaining mines on the cells away from the numbers.
+ */
+public class Solver {
+    // state of a frontier cell during propagation
+    static final byte UNKNOWN = 0;
+    static final byte SAFE = 1;
+    static final byte MINE = 2;
+
+    private ForkJoinPool pool;
+    private long nodeBudget;// enumeration steps allowed per component
+
+    /**
+     * The Solver constructor creates a solver that enumerates on the common
+     * fork-join pool.
+     */
+    public Solver() {
+        this(ForkJoinPool.commonPool(), 4_000_000);
+    }
+
+    /**
+     * The Solver constructor creates a solver with its own pool and budget.
+     * 
+     * @param pool       the pool the components are enumerated on
+     * @param nodeBudget the number of enumeration steps allowed per component;
+     *                   components that need more are given the average mine
+     *                   density instead of exact probabilities
+     */
+    public Solver(ForkJoinPool pool, long nodeBudget) {
+        this.pool = pool;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * The Result class holds what the solver found out about a board.
+     */
+    public static class Result {
+        private ChangeSet safe;// hidden cells that cannot hold a mine
+        private ChangeSet mines;// hidden cells that must hold a mine
+        private int[] cells;// sorted hidden cells next to a revealed number
+        private double[] probabilities;// mine probability of each of `cells`
+        private double otherProbability;// mine probability of every other hidden cell
+        private int cols;
+
+        /**
+         * The method returns the hidden cells next to a revealed number that
+         * certainly have no mine. If getOtherProbability() is 0, every other
+         * hidden cell is safe too.
+         * 
+         * @return the safe cells as indices `row * cols + col`
+         */
+        public ChangeSet getSafeCells() {
+            return safe;
+        }
+
+        /**
+         * The method returns the hidden cells that certainly have a mine.
+         * 
+         * @return the mines as indices `row * cols + col`
+         */
+        public ChangeSet getMines() {
+            return mines;
+        }
+
+        /**
+         * The method returns the probability that a hidden cell has a mine.
+         * 
+         * @param row the row index of a hidden cell
+         * @param col the column index of a hidden cell
+         * @return the probability, between 0 and 1
+         */
+        public double getProbability(int row, int col) {
+            int i = Arrays.binarySearch(cells, row * cols + col);
+            return i >= 0 ? probabilities[i] : otherProbability;
+        }
+
+        /**
+         * The method returns the probability shared by all hidden cells that
+         * are not next to a revealed number.
+         * 
+         * @return the probability, between 0 and 1
+         */
+        public double getOtherProbability() {
+            return otherProbability;
+        }
+
+        /**
+         * The method checks if every hidden cell that is not next to a revealed
+         * number is certainly safe. It is getOtherProbability() == 0, but a
+         * result that fills in its probabilities lazily can answer it without
+         * them.
+         * 
+         * @return true if the other hidden cells have no mine
+         */
+        public boolean isOtherSafe() {
+            return getOtherProbability() == 0;
+        }
+
+        /**
+         * The method computes the probabilities of a result that fills them in
+         * lazily, so that it can then be read on another thread. A result of
+         * solve() has them already.
+         */
+        void computeProbabilities() {
+        }
+    }
+
+    /**
+     * The method solves the visible state of a board.
+     * 
+     * @param board the board to solve
+     * @return the safe cells, the mines and the mine probabilities
+     */
+    public Result solve(Board board) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+
+        // every revealed number is a constraint
+        ChangeSet numbers = new ChangeSet();
+        int hidden = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (!board.isRevealed(r, c)) {
+                    hidden++;
+                } else if (!board.hasMine(r, c) && board.countAdjacentMines(r, c) != 0) {
+                    numbers.add(r * cols + c);
+                }
+            }
+        }
+        byte[] decided = new byte[rows * cols];
+        ChangeSet frontier = new ChangeSet();
+        List<Component> components = analyse(board, numbers, decided, frontier);
+        return result(cols, frontier, decided, components, hidden, board.getNumOfMines());
+    }
+
+    /**
+     * The method solves the constraints of some revealed numbers on their own:
+     * it decides the cells it can by propagation, and splits the cells left
+     * into components and enumerates them. Cells already decided are taken as
+     * given, so a caller can solve only the numbers a move touched as long as
+     * no undecided cell next to them is shared with numbers left out.
+     * 
+     * @param board    the board the numbers are on
+     * @param numbers  the revealed numbers, as indices `row * cols + col`
+     * @param decided  SAFE or MINE for every hidden cell already decided, by
+     *                 cell index; the cells decided now are added
+     * @param frontier receives the hidden cells next to the numbers
+     * @return the enumerated components, their cells as board cell indices
+     */
+    List<Component> analyse(Board board, ChangeSet numbers, byte[] decided, ChangeSet frontier) {
+        int cols = board.getCols();
+
+        // collect the constraints and the hidden cells next to them
+        List<int[]> neighbours = new ArrayList<>();
+        ChangeSet counts = new ChangeSet();
+        ChangeSet cells = new ChangeSet();
+        for (int k = 0; k < numbers.size(); k++) {
+            int r = numbers.get(k) / cols;
+            int c = numbers.get(k) - r * cols;
+            int[] hiddenCells = hiddenNeighbours(board, r, c);
+            if (hiddenCells.length > 0) {
+                counts.add(board.countAdjacentMines(r, c));
+                neighbours.add(hiddenCells);
+                for (int cell : hiddenCells) {
+                    cells.add(cell);
+                }
+            }
+        }
+        int[] vars = sortedDistinct(cells);
+
+        // constraints over the frontier, with cells renamed to their position in vars
+        int n = neighbours.size();
+        int[][] constraintVars = new int[n][];
+        int[] constraintMines = new int[n];
+        for (int k = 0; k < n; k++) {
+            int[] hiddenCells = neighbours.get(k);
+            constraintVars[k] = new int[hiddenCells.length];
+            for (int i = 0; i < hiddenCells.length; i++) {
+                constraintVars[k][i] = Arrays.binarySearch(vars, hiddenCells[i]);
+            }
+            constraintMines[k] = counts.get(k);
+        }
+        int[][] varConstraints = invert(constraintVars, vars.length);
+
+        byte[] state = new byte[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            state[i] = decided[vars[i]];
+        }
+        propagate(constraintVars, constraintMines, varConstraints, state);
+        for (int i = 0; i < vars.length; i++) {
+            decided[vars[i]] = state[i];
+            frontier.add(vars[i]);
+        }
+
+        // split the undecided cells into independent components and enumerate them
+        List<Component> components = components(constraintVars, constraintMines, varConstraints, state);
+        List<Component> large = new ArrayList<>();
+        for (Component component : components) {
+            if (component.vars.length > 12) {
+                large.add(component);
+            } else {
+                component.enumerate(nodeBudget);
+            }
+        }
+        if (large.size() == 1) {
+            large.get(0).enumerate(nodeBudget);
+        } else if (!large.isEmpty()) {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            for (Component component : large) {
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        component.enumerate(nodeBudget);
+                    }
+                });
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+        for (Component component : components) {
+            for (int i = 0; i < component.vars.length; i++) {
+                component.vars[i] = vars[component.vars[i]];
+            }
+        }
+        return components;
+    }
+
+    /**
+     * The method builds the result of a board from its decided cells and its
+     * enumerated components.
+     * 
+     * @param cols       the number of columns of the board
+     * @param frontier   the hidden cells next to a revealed number, in any
+     *                   order and possibly repeated
+     * @param decided    SAFE or MINE for every decided cell, by cell index
+     * @param components the enumerated components, by board cell index
+     * @param hidden     the number of hidden cells of the board
+     * @param mines      the number of mines of the board
+     * @return the safe cells, the mines and the mine probabilities
+     */
+    static Result result(int cols, ChangeSet frontier, byte[] decided, List<Component> components, int hidden,
+            int mines) {
+        int[] vars = sortedDistinct(frontier);
+        int knownMines = 0;
+        for (int v : vars) {
+            if (decided[v] == MINE) {
+                knownMines++;
+            }
+        }
+        Result result = new Result();
+        result.cols = cols;
+        result.cells = vars;
+        result.probabilities = new double[vars.length];
+        combine(components, hidden - vars.length, mines - knownMines, result);
+
+        result.safe = new ChangeSet();
+        result.mines = new ChangeSet();
+        for (int i = 0; i < vars.length; i++) {
+            if (decided[vars[i]] == SAFE) {
+                result.probabilities[i] = 0;
+            } else if (decided[vars[i]] == MINE) {
+                result.probabilities[i] = 1;
+            }
+            if (result.probabilities[i] == 0) {
+                result.safe.add(vars[i]);
+            } else if (result.probabilities[i] == 1) {
+                result.mines.add(vars[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The method applies the single constraint rules and the subset rule until
+     * no more cells can be decided. The constraints to check are kept in a
+     * worklist: every constraint is checked once, and again only when one of
+     * its cells is decided, so the work follows the number of decisions
+     * instead of rescanning every constraint after each of them. A checked
+     * constraint is compared with every constraint sharing an unknown cell, in
+     * both directions, since deciding a cell of either can make one the
+     * subset of the other.
+     */
+    private static void propagate(int[][] constraintVars, int[] constraintMines, int[][] varConstraints,
+            byte[] state) {
+        int n = constraintVars.length;
+        Worklist work = new Worklist(n);
+        for (int k = 0; k < n; k++) {
+            work.add(k);
+        }
+        int[] pairedWith = new int[n];// the last constraint compared with each one
+        Arrays.fill(pairedWith, -1);
+        while (!work.isEmpty()) {
+            int a = work.poll();
+            int unknownA = unknown(constraintVars[a], state);
+            if (unknownA == 0) {
+                continue;
+            }
+            int leftA = left(constraintVars[a], constraintMines[a], state);
+            if (leftA == 0 || leftA == unknownA) {
+                decide(constraintVars[a], null, leftA == 0 ? SAFE : MINE, varConstraints, state, work);
+                continue;
+            }
+            for (int v : constraintVars[a]) {
+                if (state[v] != UNKNOWN) {
+                    continue;
+                }
+                for (int b : varConstraints[v]) {
+                    if (b == a || pairedWith[b] == a) {
+                        continue;
+                    }
+                    pairedWith[b] = a;
+                    if (containsUnknown(constraintVars[b], constraintVars[a], state)) {
+                        subset(a, b, constraintVars, constraintMines, varConstraints, state, work);
+                    } else if (containsUnknown(constraintVars[a], constraintVars[b], state)) {
+                        subset(b, a, constraintVars, constraintMines, varConstraints, state, work);
+                    }
+                }
+            }
+            // a can be checked again later, against the same constraints
+            for (int v : constraintVars[a]) {
+                for (int b : varConstraints[v]) {
+                    pairedWith[b] = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * The method applies the subset rule to two constraints where the unknown
+     * cells of `inner` are all in `outer`: the rest of `outer` holds
+     * left(outer) - left(inner) mines, which decides it if that is none or
+     * all of them.
+     */
+    private static void subset(int inner, int outer, int[][] constraintVars, int[] constraintMines,
+            int[][] varConstraints, byte[] state, Worklist work) {
+        int unknownInner = unknown(constraintVars[inner], state);
+        if (unknownInner == 0) {
+            return;
+        }
+        int rest = unknown(constraintVars[outer], state) - unknownInner;
+        int restMines = left(constraintVars[outer], constraintMines[outer], state)
+                - left(constraintVars[inner], constraintMines[inner], state);
+        if (rest > 0 && (restMines == 0 || restMines == rest)) {
+            decide(constraintVars[outer], constraintVars[inner], restMines == 0 ? SAFE : MINE, varConstraints,
+                    state, work);
+        }
+    }
+
+    /**
+     * The method decides the unknown cells of a constraint that are not in
+     * `except`, and queues every constraint of the decided cells.
+     */
+    private static void decide(int[] vars, int[] except, byte value, int[][] varConstraints, byte[] state,
+            Worklist work) {
+        for (int v : vars) {
+            if (state[v] == UNKNOWN && (except == null || !contains(except, v))) {
+                state[v] = value;
+                for (int k : varConstraints[v]) {
+                    work.add(k);
+                }
+            }
+        }
+    }
+
+    /**
+     * The Worklist class is a queue of constraint indices that holds every
+     * index at most once.
+     */
+    private static final class Worklist {
+        private int[] queue;// ring buffer of queued constraints
+        private boolean[] queued;
+        private int head;
+        private int size;
+
+        Worklist(int constraints) {
+            this.queue = new int[Math.max(1, constraints)];
+            this.queued = new boolean[constraints];
+        }
+
+        void add(int k) {
+            if (!queued[k]) {
+                queued[k] = true;
+                queue[(head + size++) % queue.length] = k;
+            }
+        }
+
+        int poll() {
+            int k = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[k] = false;
+            return k;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * The method returns the number of mines a constraint still has to place
+     * on its unknown cells.
+     */
+    private static int left(int[] vars, int mines, byte[] state) {
+        for (int v : vars) {
+            if (state[v] == MINE) {
+                mines--;
+            }
+        }
+        return mines;
+    }
+
+    /**
+     * The method returns the number of unknown cells of a constraint.
+     */
+    private static int unknown(int[] vars, byte[] state) {
+        int unknown = 0;
+        for (int v : vars) {
+            if (state[v] == UNKNOWN) {
+                unknown++;
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * The method checks if every unknown cell of `inner` is also in `outer`.
+     */
+    private static boolean containsUnknown(int[] outer, int[] inner, byte[] state) {
+        for (int v : inner) {
+            if (state[v] == UNKNOWN && !contains(outer, v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] vars, int v) {
+        for (int w : vars) {
+            if (w == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The method groups the unknown cells into components of cells linked
+     * through shared constraints, using a union-find over the cells.
+     */
+    private static List<Component> components(int[][] constraintVars, int[] constraintMines, int[][] varConstraints,
+            byte[] state) {
+        int[] parent = new int[state.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int[] vars : constraintVars) {
+            int first = -1;
+            for (int v : vars) {
+                if (state[v] != UNKNOWN) {
+                    continue;
+                }
+                if (first < 0) {
+                    first = v;
+                } else {
+                    parent[find(parent, v)] = find(parent, first);
+                }
+            }
+        }
+        int[] componentOf = new int[state.length];
+        Arrays.fill(componentOf, -1);
+        List<ChangeSet> members = new ArrayList<>();
+        for (int v = 0; v < state.length; v++) {
+            if (state[v] != UNKNOWN) {
+                continue;
+            }
+            int root = find(parent, v);
+            if (componentOf[root] < 0) {
+                componentOf[root] = members.size();
+                members.add(new ChangeSet());
+            }
+            members.get(componentOf[root]).add(v);
+        }
+        List<Component> components = new ArrayList<>();
+        for (ChangeSet set : members) {
+            int[] vars = new int[set.size()];
+            for (int i = 0; i < vars.length; i++) {
+                vars[i] = set.get(i);
+            }
+            components.add(new Component(vars, constraintVars, constraintMines, varConstraints, state));
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * The Component class holds a group of unknown cells that share
+     * constraints only with each other, and the result of enumerating every
+     * placement of mines on them that satisfies the constraints.
+     */
+    static class Component {
+        int[] vars;// frontier positions of the cells in enumeration order, board cell indices once enumerated
+        int[][] constraints;// constraints as positions into `vars`
+        int[] constraintMines;// mines each constraint still has to place
+        double[] solutions;// solutions[m]: number of solutions with m mines, scaled to a maximum of 1
+        double[][] cellMines;// cellMines[i][m]: solutions with m mines where cell i has one, scaled alike
+        boolean exact;// false if the enumeration ran out of budget
+        int minMines;// fewest mines of a solution, if exact
+        int maxMines;// most mines of a solution, if exact
+
+        /**
+         * The Component constructor builds the constraints of a component,
+         * ordering the cells so that neighbouring cells are enumerated one after
+         * the other, which lets constraints fail early. The positions of the
+         * cells and the constraints seen are kept in maps sized to the
+         * component, so a board with many components does not allocate for
+         * every cell of the frontier per component.
+         */
+        Component(int[] members, int[][] constraintVars, int[] mines, int[][] varConstraints, byte[] state) {
+            // breadth first order through the constraints
+            int[] order = new int[members.length];
+            Map<Integer, Integer> local = new HashMap<>(members.length * 2);
+            Set<Integer> usedConstraint = new HashSet<>(members.length * 4);
+            List<Integer> touched = new ArrayList<>();
+            int size = 0;
+            order[size] = members[0];
+            local.put(members[0], size++);
+            for (int head = 0; head < size; head++) {
+                for (int k : varConstraints[order[head]]) {
+                    if (usedConstraint.add(k)) {
+                        touched.add(k);
+                    }
+                    for (int v : constraintVars[k]) {
+                        if (state[v] == UNKNOWN && !local.containsKey(v)) {
+                            order[size] = v;
+                            local.put(v, size++);
+                        }
+                    }
+                }
+            }
+            this.vars = order;
+            this.constraints = new int[touched.size()][];
+            this.constraintMines = new int[touched.size()];
+            for (int t = 0; t < touched.size(); t++) {
+                int k = touched.get(t);
+                ChangeSet cells = new ChangeSet();
+                for (int v : constraintVars[k]) {
+                    if (state[v] == UNKNOWN) {
+                        cells.add(local.get(v));
+                    }
+                }
+                constraints[t] = new int[cells.size()];
+                for (int i = 0; i < cells.size(); i++) {
+                    constraints[t][i] = cells.get(i);
+                }
+                constraintMines[t] = left(constraintVars[k], mines[k], state);
+            }
+        }
+
+        /**
+         * The method enumerates every placement of mines on the cells of the
+         * component by backtracking, counting the solutions by their number of
+         * mines. Each constraint tracks the mines placed and the cells still
+         * open, so a branch stops as soon as a constraint cannot be met. The
+         * counts are scaled to a maximum of 1.
+         * 
+         * The counts per cell take n * (n + 1) doubles, so they are only
+         * allocated once the solutions were counted within the budget; the
+         * cells are then counted in a second, identical walk. A component
+         * too large to enumerate never allocates them.
+         * 
+         * @param budget the number of steps after which the enumeration gives
+         *               up
+         */
+        void enumerate(long budget) {
+            int n = vars.length;
+            solutions = new double[n + 1];
+            exact = walk(budget, false);
+            if (!exact) {
+                return;
+            }
+            solutions = new double[n + 1];
+            cellMines = new double[n][n + 1];
+            walk(budget, true);
+            minMines = 0;
+            while (minMines < n && solutions[minMines] == 0) {
+                minMines++;
+            }
+            maxMines = n;
+            while (maxMines > 0 && solutions[maxMines] == 0) {
+                maxMines--;
+            }
+            // scale the counts so products of counts stay within range
+            double max = 0;
+            for (double s : solutions) {
+                max = Math.max(max, s);
+            }
+            for (int m = 0; m <= n; m++) {
+                solutions[m] /= max;
+            }
+            for (double[] cell : cellMines) {
+                for (int m = 0; m <= n; m++) {
+                    cell[m] /= max;
+                }
+            }
+        }
+
+        /**
+         * The method returns what the component alone says about one of its
+         * cells: SAFE if no solution has a mine on it, MINE if every solution
+         * has, UNKNOWN otherwise or if the enumeration was not exact. The mine
+         * counts of the other components can still decide an UNKNOWN cell.
+         * 
+         * @param c the position of the cell in `vars`
+         * @return SAFE, MINE or UNKNOWN
+         */
+        byte certainty(int c) {
+            if (!exact) {
+                return UNKNOWN;
+            }
+            boolean safe = true;
+            boolean mine = true;
+            for (int m = 0; m < solutions.length; m++) {
+                safe &= cellMines[c][m] == 0;
+                mine &= cellMines[c][m] == solutions[m];
+            }
+            return safe ? SAFE : mine ? MINE : UNKNOWN;
+        }
+
+        /**
+         * The method walks every placement of mines by backtracking and counts
+         * the solutions into `solutions`, and if asked the solutions where each
+         * cell has a mine into `cellMines`.
+         * 
+         * @return false if the walk ran out of budget
+         */
+        private boolean walk(long budget, boolean countCells) {
+            int n = vars.length;
+            int[][] cellConstraints = invert(constraints, n);
+            int[] placed = new int[constraints.length];
+            int[] open = new int[constraints.length];
+            for (int k = 0; k < constraints.length; k++) {
+                open[k] = constraints[k].length;
+            }
+            boolean[] mine = new boolean[n];
+            int[] choice = new int[n];// 0 = untried, 1 = safe tried, 2 = mine tried
+            int depth = 0;
+            int mineCount = 0;
+            long steps = 0;
+            while (depth >= 0) {
+                if (++steps > budget) {
+                    return false;
+                }
+                if (depth == n) {
+                    solutions[mineCount]++;
+                    for (int i = 0; countCells && i < n; i++) {
+                        if (mine[i]) {
+                            cellMines[i][mineCount]++;
+                        }
+                    }
+                    depth--;
+                    continue;
+                }
+                // undo the previous choice of this cell
+                if (choice[depth] > 0) {
+                    for (int k : cellConstraints[depth]) {
+                        open[k]++;
+                        if (mine[depth]) {
+                            placed[k]--;
+                        }
+                    }
+                    if (mine[depth]) {
+                        mineCount--;
+                        mine[depth] = false;
+                    }
+                }
+                if (choice[depth] == 2) {
+                    choice[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                choice[depth]++;
+                boolean isMine = choice[depth] == 2;
+                boolean valid = true;
+                for (int k : cellConstraints[depth]) {
+                    open[k]--;
+                    if (isMine) {
+                        placed[k]++;
+                    }
+                    if (placed[k] > constraintMines[k] || placed[k] + open[k] < constraintMines[k]) {
+                        valid = false;
+                    }
+                }
+                mine[depth] = isMine;
+                if (isMine) {
+                    mineCount++;
+                }
+                if (valid) {
+                    depth++;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The method combines the solutions of the components with the ways to
+     * place the remaining mines on the `other` hidden cells away from the
+     * numbers, and fills in the probabilities of the result.
+     */
+    private static void combine(List<Component> components, int other, int minesLeft, Result result) {
+        // components that ran out of budget are counted like the other cells
+        List<Component> exact = new ArrayList<>();
+        for (Component component : components) {
+            if (component.exact) {
+                exact.add(component);
+            } else {
+                other += component.vars.length;
+            }
+        }
+        int k = exact.size();
+        double[][] dist = new double[k][];
+        for (int i = 0; i < k; i++) {
+            dist[i] = exact.get(i).solutions;
+        }
+        double[] total = { 1 };
+        for (int i = 0; i < k; i++) {
+            total = convolve(total, dist[i]);
+        }
+        double[] weight = binomialWeights(other, minesLeft, total.length);
+
+        double norm = 0;
+        double otherMines = 0;
+        for (int s = 0; s < total.length; s++) {
+            norm += total[s] * weight[s];
+            otherMines += total[s] * weight[s] * (minesLeft - s);
+        }
+        if (norm == 0) {
+            // the visible state admits no solution; fall back to the density
+            double density = other > 0 ? Math.max(0, Math.min(1, (double) minesLeft / other)) : 0;
+            result.otherProbability = density;
+            Arrays.fill(result.probabilities, density);
+            return;
+        }
+        result.otherProbability = other > 0 ? otherMines / norm / other : 0;
+
+        for (Component component : components) {
+            if (!component.exact) {
+                for (int v : component.vars) {
+                    result.probabilities[Arrays.binarySearch(result.cells, v)] = result.otherProbability;
+                }
+            }
+        }
+        // after[i][t] is the weight of the solutions of components i..k-1 and
+        // the other cells, given t mines on components 0..i-1, so each
+        // component needs one pass over the distribution of those before it
+        // instead of a convolution of all the others
+        double[][] after = new double[k + 1][];
+        after[k] = weight;
+        for (int i = k - 1; i >= 0; i--) {
+            after[i] = new double[after[i + 1].length - dist[i].length + 1];
+            for (int t = 0; t < after[i].length; t++) {
+                for (int m = 0; m < dist[i].length; m++) {
+                    after[i][t] += dist[i][m] * after[i + 1][t + m];
+                }
+            }
+        }
+        double[] before = { 1 };// mine distribution of components 0..i-1
+        for (int i = 0; i < k; i++) {
+            Component component = exact.get(i);
+            // rest[m]: weight of everything else given m mines on this component
+            double[] rest = new double[dist[i].length];
+            for (int p = 0; p < before.length; p++) {
+                if (before[p] == 0) {
+                    continue;
+                }
+                for (int m = 0; m < rest.length; m++) {
+                    rest[m] += before[p] * after[i + 1][p + m];
+                }
+            }
+            for (int c = 0; c < component.vars.length; c++) {
+                // weight of the solutions with and without a mine on the cell,
+                // kept apart so that certain cells come out as exactly 0 or 1
+                double withMine = 0;
+                double without = 0;
+                double[] cell = component.cellMines[c];
+                for (int m = 0; m < cell.length; m++) {
+                    withMine += cell[m] * rest[m];
+                    without += (dist[i][m] - cell[m]) * rest[m];
+                }
+                double sum = withMine + without;
+                result.probabilities[Arrays.binarySearch(result.cells, component.vars[c])] = sum > 0
+                        ? withMine / sum
+                        : result.otherProbability;
+            }
+            before = convolve(before, dist[i]);
+            after[i + 1] = null;
+        }
+    }
+
+    /**
+     * The method returns, for every number s of mines on the frontier, the
+     * number of ways to place the other `minesLeft - s` mines on `other` cells,
+     * scaled so the largest weight is 1.
+     */
+    private static double[] binomialWeights(int other, int minesLeft, int length) {
+        double[] log = new double[length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < length; s++) {
+            int k = minesLeft - s;
+            log[s] = k < 0 || k > other ? Double.NEGATIVE_INFINITY : logChoose(other, k);
+            max = Math.max(max, log[s]);
+        }
+        double[] weight = new double[length];
+        for (int s = 0; s < length; s++) {
+            weight[s] = log[s] == Double.NEGATIVE_INFINITY ? 0 : Math.exp(log[s] - max);
+        }
+        return weight;
+    }
+
+    /**
+     * The method returns the natural logarithm of the binomial coefficient
+     * C(n, k).
+     */
+    private static double logChoose(int n, int k) {
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    /**
+     * The method returns ln(n!), exactly for small n and with Stirling's series
+     * otherwise.
+     */
+    private static double logFactorial(int n) {
+        if (n < 20) {
+            double f = 1;
+            for (int i = 2; i <= n; i++) {
+                f *= i;
+            }
+            return Math.log(f);
+        }
+        double x = n + 1;
+        return (x - 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI) + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] c = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                c[i + j] += a[i] * b[j];
+            }
+        }
+        return c;
+    }
+
+    /**
+     * The method returns the hidden neighbours of a cell as indices
+     * `row * cols + col`.
+     */
+    private static int[] hiddenNeighbours(Board board, int row, int col) {
+        int[] cells = new int[8];
+        int n = 0;
+        for (int i = Math.max(0, row - 1); i <= Math.min(row + 1, board.getRows() - 1); i++) {
+            for (int j = Math.max(0, col - 1); j <= Math.min(col + 1, board.getCols() - 1); j++) {
+                if (!board.isRevealed(i, j)) {
+                    cells[n++] = i * board.getCols() + j;
+                }
+            }
+        }
+        return Arrays.copyOf(cells, n);
+    }
+
+    /**
+     * The method returns the distinct values of a change set in ascending
+     * order.
+     */
+    private static int[] sortedDistinct(ChangeSet set) {
+        int[] values = new int[set.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = set.get(i);
+        }
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[i] != values[n - 1]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    /**
+     * The method inverts a list of sets: for every value below `size` it
+     * returns the indices of the sets that contain it.
+     */
+    private static int[][] invert(int[][] sets, int size) {
+        int[] count = new int[size];
+        for (int[] set : sets) {
+            for (int v : set) {
+                count[v]++;
+            }
+        }
+        int[][] inverse = new int[size][];
+        for (int v = 0; v < size; v++) {
+            inverse[v] = new int[count[v]];
+            count[v] = 0;
+        }
+        for (int k = 0; k < sets.length; k++) {
+            for (int v : sets[k]) {
+                inverse[v][count[v]++] = k;
+            }
+        }
+        return inverse;
+    }
+}
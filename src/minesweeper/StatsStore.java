@@ -0,0 +1,363 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The StatsStore class keeps the results of finished games, played or
+ * simulated, in a file of fixed-width records. The file is mapped into memory,
+ * so appending a result is a few stores into the mapping, and it grows by
+ * doubling the mapped region. Next to the file the store keeps, per board
+ * configuration and source, streaming aggregates: the number of games and
+ * wins and a `Histogram` each of the clicks, the times, the 3BV and the
+ * efficiency. A query such as the median clicks of 16x30 games with 99 mines
+ * reads these sketches and never looks at the records; the records are only
+ * read once, when the file is opened.
+ * 
+ * Header, 32 bytes, little-endian like the records:
+ * 
+ * <pre>
+ *  0  int   magic "MSST"
+ *  4  int   format version
+ *  8  int   record size
+ * 12  int   reserved, 0
+ * 16  long  number of records
+ * 24  long  reserved, 0
+ * </pre>
+ * 
+ * Record, 32 bytes:
+ * 
+ * <pre>
+ *  0  int   rows
+ *  4  int   columns
+ *  8  int   mines
+ * 12  int   clicks, chords included
+ * 16  int   3BV
+ * 20  int   duration in milliseconds
+ * 24  int   end of the game, seconds since 1970, unsigned
+ * 28  byte  WON or LOST
+ * 29  byte  PLAYED or SIMULATED
+ * 30  short reserved, 0
+ * </pre>
+ * 
+ * The record count is written after the record, so a crash loses at most the
+ * result being written.
+ * 
+ * A game is recorded once, with the result it first ended with; undoing the
+ * end of a game and finishing it again does not record it a second time.
+ */
+public class StatsStore implements Closeable {
+    public static final byte PLAYED = 0;
+    public static final byte SIMULATED = 1;
+    public static final byte WON = 1;
+    public static final byte LOST = 2;
+
+    private static final int MAGIC = 0x5453534d;// "MSST"
+    private static final int VERSION = 2;// 2: chords count as clicks
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 32;
+    private static final int INITIAL_CAPACITY = 1024;// records mapped at first
+
+    private static StatsStore shared;// the store of -Dminesweeper.stats
+    private static boolean sharedOpened;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;// header and `capacity` records
+    private long capacity;
+    private long count;// records in the file
+    private Map<String, Stats> stats;// aggregates by source and configuration
+
+    /**
+     * The Stats class holds the streaming aggregates of the games of one board
+     * configuration and source. The histograms give counts, means, maxima and
+     * percentiles within 1/8 of the value.
+     */
+    public static class Stats {
+        private int rows;
+        private int cols;
+        private int mines;
+        private byte source;
+        private LongAdder wins = new LongAdder();
+        private Histogram clicks = new Histogram();// every game
+        private Histogram bbbv = new Histogram();// every game
+        private Histogram millis = new Histogram();// won games
+        private Histogram efficiency = new Histogram();// won games, in percent
+
+        /**
+         * The method returns the number of games.
+         */
+        public long getGames() {
+            return clicks.getCount();
+        }
+
+        /**
+         * The method returns the number of won games.
+         */
+        public long getWins() {
+            return wins.sum();
+        }
+
+        /**
+         * The method returns the fraction of the games that were won.
+         */
+        public double getWinRate() {
+            long games = getGames();
+            return games == 0 ? 0 : (double) getWins() / games;
+        }
+
+        /**
+         * The method returns the clicks of every game, won or lost.
+         */
+        public Histogram getClicks() {
+            return clicks;
+        }
+
+        /**
+         * The method returns the 3BV of the boards of every game.
+         */
+        public Histogram get3BV() {
+            return bbbv;
+        }
+
+        /**
+         * The method returns the times of the won games in milliseconds.
+         */
+        public Histogram getMillis() {
+            return millis;
+        }
+
+        /**
+         * The method returns the efficiency of the won games in percent, see
+         * GameEngine.getEfficiency(); chords count as clicks.
+         */
+        public Histogram getEfficiency() {
+            return efficiency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%dx%d/%d %s: %d games, %.2f%% won, clicks p50 %d p99 %d, 3BV p50 %d, "
+                    + "time p50 %d ms p99 %d ms, efficiency p50 %d%%", rows, cols, mines,
+                    source == PLAYED ? "played" : "simulated", getGames(), 100 * getWinRate(),
+                    clicks.getPercentile(0.5), clicks.getPercentile(0.99), bbbv.getPercentile(0.5),
+                    millis.getPercentile(0.5), millis.getPercentile(0.99), efficiency.getPercentile(0.5));
+        }
+    }
+
+    /**
+     * The StatsStore constructor opens a store, creating the file if it does
+     * not exist, and builds the aggregates from the records in it.
+     * 
+     * @param file the record file
+     * @throws IOException if the file cannot be opened or is not a store
+     */
+    public StatsStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.stats = new ConcurrentHashMap<>();
+        boolean empty = channel.size() == 0;
+        if (!empty && channel.size() < HEADER_SIZE) {
+            channel.close();
+            throw new IOException(file + " is not a statistics store");
+        }
+        map(Math.max(INITIAL_CAPACITY, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+        if (empty) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putLong(16, 0);
+            return;
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+            channel.close();
+            throw new IOException(file + " is not a statistics store of version " + VERSION);
+        }
+        count = buffer.getLong(16);
+        if (count > capacity) {
+            channel.close();
+            throw new IOException(file + " is truncated");
+        }
+        for (long i = 0; i < count; i++) {
+            int at = (int) (HEADER_SIZE + i * RECORD_SIZE);
+            aggregate(buffer.getInt(at), buffer.getInt(at + 4), buffer.getInt(at + 8), buffer.getInt(at + 12),
+                    buffer.getInt(at + 16), buffer.getInt(at + 20), buffer.get(at + 28), buffer.get(at + 29));
+        }
+    }
+
+    /**
+     * The method returns the store named by the system property
+     * `minesweeper.stats`, opened on first use and closed when the JVM exits,
+     * or null if the property is not set or the file cannot be opened.
+     * 
+     * @return the shared store, or null
+     */
+    public static synchronized StatsStore shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            String file = System.getProperty("minesweeper.stats");
+            if (file != null) {
+                try {
+                    shared = new StatsStore(Paths.get(file));
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            shared.close();
+                        } catch (IOException e) {
+                            System.err.println("Could not write the statistics: " + e.getMessage());
+                        }
+                    }));
+                } catch (IOException e) {
+                    System.err.println("Could not open the statistics: " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * The method appends the result of a finished game and adds it to the
+     * aggregates. It can be called from any thread.
+     * 
+     * @param source PLAYED or SIMULATED
+     * @param engine the game, won or lost
+     * @param millis how long the game took in milliseconds
+     * @throws IOException if the file cannot grow
+     */
+    public void record(byte source, GameEngine engine, long millis) throws IOException {
+        Board board = engine.getBoard();
+        byte status = engine.getStatus() == GameStatus.WON ? WON : LOST;
+        int duration = (int) Math.min(Integer.MAX_VALUE, Math.max(0, millis));
+        // counted outside the lock, the 3BV of a large board takes a while
+        int bbbv = board.get3BV();
+        synchronized (this) {
+            if (count == capacity) {
+                map(capacity * 2);
+            }
+            int at = (int) (HEADER_SIZE + count * RECORD_SIZE);
+            buffer.putInt(at, board.getRows());
+            buffer.putInt(at + 4, board.getCols());
+            buffer.putInt(at + 8, board.getNumOfMines());
+            buffer.putInt(at + 12, engine.getClickCount());
+            buffer.putInt(at + 16, bbbv);
+            buffer.putInt(at + 20, duration);
+            buffer.putInt(at + 24, (int) (System.currentTimeMillis() / 1000));
+            buffer.put(at + 28, status);
+            buffer.put(at + 29, source);
+            buffer.putShort(at + 30, (short) 0);
+            count++;
+            buffer.putLong(16, count);
+        }
+        aggregate(board.getRows(), board.getCols(), board.getNumOfMines(), engine.getClickCount(), bbbv, duration,
+                status, source);
+    }
+
+    /**
+     * The method adds a result to the aggregates of its configuration.
+     */
+    private void aggregate(int rows, int cols, int mines, int clicks, int bbbv, int millis, byte status,
+            byte source) {
+        Stats s = stats.computeIfAbsent(key(source, rows, cols, mines), k -> {
+            Stats created = new Stats();
+            created.rows = rows;
+            created.cols = cols;
+            created.mines = mines;
+            created.source = source;
+            return created;
+        });
+        s.clicks.record(clicks);
+        s.bbbv.record(bbbv);
+        if (status == WON) {
+            s.wins.increment();
+            s.millis.record(millis);
+            s.efficiency.record(clicks == 0 ? 0 : Math.round(100.0 * bbbv / clicks));
+        }
+    }
+
+    /**
+     * The method returns the aggregates of a board configuration. They are
+     * live: later results show up in them.
+     * 
+     * @param source PLAYED or SIMULATED
+     * @param rows   the number of rows of the board
+     * @param cols   the number of columns of the board
+     * @param mines  the number of mines on the board
+     * @return the aggregates, or null if no such game was recorded
+     */
+    public Stats getStats(byte source, int rows, int cols, int mines) {
+        return stats.get(key(source, rows, cols, mines));
+    }
+
+    /**
+     * The method returns the aggregates of every configuration recorded,
+     * sorted by their key.
+     * 
+     * @return the aggregates of all configurations
+     */
+    public Iterable<Stats> getAllStats() {
+        return new TreeMap<>(stats).values();
+    }
+
+    /**
+     * The method returns the number of results in the store.
+     * 
+     * @return the number of records
+     */
+    public synchronized long getRecordCount() {
+        return count;
+    }
+
+    /**
+     * The method writes the mapped records to the disk and closes the file.
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * The method maps the header and room for the given number of records,
+     * growing the file if needed.
+     */
+    private void map(long records) throws IOException {
+        if (HEADER_SIZE + records * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("The statistics file is full");
+        }
+        this.capacity = records;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + records * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String key(byte source, int rows, int cols, int mines) {
+        return source + ":" + rows + "x" + cols + "/" + mines;
+    }
+
+    /**
+     * The main function prints the statistics of a store:
+     * `java StatsStore file [rows cols mines]`, every configuration or one.
+     */
+    public static void main(String[] args) throws IOException {
+        try (StatsStore store = new StatsStore(Paths.get(args[0]))) {
+            System.out.println(store.getRecordCount() + " games");
+            for (Stats s : store.getAllStats()) {
+                if (args.length < 4 || (s.rows == Integer.parseInt(args[1]) && s.cols == Integer.parseInt(args[2])
+                        && s.mines == Integer.parseInt(args[3]))) {
+                    System.out.println(s);
+                }
+            }
+        }
+    }
+}
